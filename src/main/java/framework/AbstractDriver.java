@@ -1,26 +1,44 @@
 package framework;
 
+import org.apache.logging.log4j.Logger;
 import org.junit.Assert;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
-import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static framework.Constants.ENV_EVENT_DRIVEN_WAITS;
+import static framework.Constants.ENV_PAGE_READY_QUIET_MILLIS;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public abstract class AbstractDriver {
 
+    private static final Logger LOGGER = LoggerService.getLogger(AbstractDriver.class);
     private static final long DEFAULT_IMPLICIT_WAIT = 30;
+    private static final long SCRIPT_TIMEOUT_MARGIN_MILLIS = 5000;
+    private static final boolean EVENT_DRIVEN_WAITS = EnvVars.getBoolean(ENV_EVENT_DRIVEN_WAITS, true);
+    private static final long PAGE_READY_QUIET_MILLIS = EnvVars.getLong(ENV_PAGE_READY_QUIET_MILLIS, 500);
+    private static final int PAGE_READY_ATTEMPTS = 3;
     private final WebDriver webDriver;
+    private final SessionTimeouts timeouts;
+    private PollingStrategy pollingStrategy = PollingStrategy.getDefault();
+    private boolean eventDrivenWaits = EVENT_DRIVEN_WAITS;
 
     /**
      * Clients can implement this class to create a thread-safe "Driver" class.
      */
     protected AbstractDriver() {
-        this.webDriver = DriverManager.getDriver().getWebDriver();
+        Driver driver = DriverManager.getDriver();
+        this.webDriver = driver.getWebDriver();
+        this.timeouts = driver.getTimeouts();
         setImplicitWaitToDefault();
     }
 
@@ -34,33 +52,251 @@ public abstract class AbstractDriver {
     }
 
     /**
-     * Sets the {@link WebDriver} implicit wait time to {@link #DEFAULT_IMPLICIT_WAIT}.
+     * Sets the {@link WebDriver} implicit wait time to {@link #DEFAULT_IMPLICIT_WAIT}. No command is sent if the
+     * session already uses it.
      */
     protected final void setImplicitWaitToDefault() {
-        this.webDriver.manage().timeouts().implicitlyWait(DEFAULT_IMPLICIT_WAIT, TimeUnit.SECONDS);
+        setImplicitWait(DEFAULT_IMPLICIT_WAIT, TimeUnit.SECONDS);
     }
 
     /**
-     * Sets the {@link WebDriver} implicit wait time to zero seconds.
+     * Sets the {@link WebDriver} implicit wait time to zero seconds. No command is sent if the session already uses
+     * it.
      */
     protected final void setZeroImplicitWait() {
-        this.webDriver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
+        setImplicitWait(0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sets the {@link WebDriver} implicit wait time. No command is sent if the session already uses it, so the
+     * implicit wait should always be changed through this class rather than through {@link WebDriver#manage()}.
+     *
+     * @param duration Implicit wait duration.
+     * @param unit     {@link TimeUnit} of the duration.
+     */
+    protected final void setImplicitWait(long duration, TimeUnit unit) {
+        timeouts.setImplicitWait(duration, unit);
+    }
+
+    /**
+     * Runs the action with the implicit wait set to zero, then restores the previous implicit wait. Commands are only
+     * sent when the implicit wait actually changes, so nested blocks cost nothing.
+     *
+     * @param action Action to run.
+     * @param <T>    Type returned by the action.
+     * @return The action's result.
+     */
+    protected final <T> T withoutImplicitWait(Supplier<T> action) {
+        long previousMillis = timeouts.getImplicitWaitMillis();
+        setZeroImplicitWait();
+        try {
+            return action.get();
+        } finally {
+            if (previousMillis >= 0) {
+                setImplicitWait(previousMillis, TimeUnit.MILLISECONDS);
+            } else {
+                setImplicitWaitToDefault();
+            }
+        }
     }
 
+    /**
+     * Waits until the first element matching the locator is displayed. With event-driven waits, a script in the page
+     * observes DOM changes and returns as soon as the element shows, in a single command; WebDriver then confirms the
+     * element is displayed. Locators the script cannot evaluate, browsers without MutationObserver, and pages that
+     * navigate away mid-wait fall back to polling.
+     *
+     * @param locator        {@link By} locator of the element.
+     * @param timeoutSeconds Max seconds to wait.
+     */
     public void waitForVisible(By locator, long timeoutSeconds) {
         Function<WebDriver, Boolean> function = webDriver -> webDriver.findElement(locator).isDisplayed();
-        webDriverWait(function, timeoutSeconds, "Element with " + locator.toString() + " not visible, tried for " + timeoutSeconds + " seconds");
+        String failMessage = "Element with " + locator.toString() + " not visible, tried for " + timeoutSeconds + " seconds";
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        ScriptLocator scriptLocator = eventDrivenWaits ? ScriptLocator.of(locator) : null;
+        int observations = 0;
+        if (scriptLocator != null && webDriver instanceof JavascriptExecutor) {
+            observations = 1;
+            WaitStats.recordObservation(observeVisible(scriptLocator, TimeUnit.SECONDS.toMillis(timeoutSeconds)));
+        }
+        waitUntil(function, start, deadline, observations, failMessage);
     }
 
-    protected final void webDriverWait(Function<WebDriver, Boolean> function, long timeoutSeconds, String failMessage) {
-        setZeroImplicitWait();
-        Wait<WebDriver> wait = new WebDriverWait(getWebDriver(), timeoutSeconds)
-                .pollingEvery(1, TimeUnit.SECONDS);
+    /**
+     * Waits until the page is quiescent for PAGE_READY_QUIET_MILLIS (500 if not set). See
+     * {@link #waitForPageReady(long, long)}.
+     *
+     * @param timeoutSeconds Max seconds to wait.
+     * @return {@link WaitStats} of the wait.
+     */
+    public WaitStats waitForPageReady(long timeoutSeconds) {
+        return waitForPageReady(timeoutSeconds, PAGE_READY_QUIET_MILLIS);
+    }
+
+    /**
+     * Waits until the page is quiescent: the document is complete, no XHR or fetch request is in flight, no finite
+     * animation is running, and that has held for the quiet window. A script in the page watches this across
+     * animation frames and returns in a single command. Requests are instrumented the first time the page is waited
+     * on, so requests started before that are not seen. If the page navigates mid-wait the new page is waited on, and
+     * if it cannot be observed the wait falls back to polling the document's ready state.
+     * <p>
+     * The time to ready of each navigation, from its start, is recorded and summarized at the end of the suite.
+     *
+     * @param timeoutSeconds Max seconds to wait.
+     * @param quietMillis    Milliseconds the page must stay quiescent.
+     * @return {@link WaitStats} of the wait.
+     */
+    public WaitStats waitForPageReady(long timeoutSeconds, long quietMillis) {
+        String failMessage = "Page not ready, tried for " + timeoutSeconds + " seconds";
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        int attempts = 0;
+        while (webDriver instanceof JavascriptExecutor && attempts < PAGE_READY_ATTEMPTS) {
+            attempts++;
+            long remainingMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            Map<?, ?> result = observePageReady(quietMillis, remainingMillis);
+            if (result == null) {
+                continue;
+            }
+            boolean ready = Boolean.TRUE.equals(result.get("ready"));
+            WaitStats stats = new WaitStats(attempts, elapsedMillis(start), ready);
+            LOGGER.trace("Page ready wait " + stats);
+            if (!ready) {
+                Assert.fail(failMessage + ", requests in flight: " + result.get("pendingRequests"));
+            }
+            Object sinceNavigation = result.get("sinceNavigationMillis");
+            PageReadyStats.record(String.valueOf(result.get("url")), sinceNavigation instanceof Number
+                    ? ((Number) sinceNavigation).longValue() : stats.getElapsedMillis());
+            return stats;
+        }
+        WaitStats stats = waitUntil(webDriver -> !(webDriver instanceof JavascriptExecutor) || "complete".equals(
+                ((JavascriptExecutor) webDriver).executeScript("return document.readyState")),
+                start, deadline, attempts, failMessage);
+        PageReadyStats.record(webDriver.getCurrentUrl(), stats.getElapsedMillis());
+        return stats;
+    }
+
+    /**
+     * Reads properties of the first element matching each locator. Locators by id, name, class name, tag name, CSS
+     * selector or XPath are all read by one script in the page, in a single command; any other locator type makes the
+     * query fall back to one command per element and property. Missing elements do not wait.
+     *
+     * @param locators   {@link By} locators of the elements.
+     * @param properties {@link ElementProperty}s to read.
+     * @return {@link ElementQueryResult} with an {@link ElementState} per locator.
+     */
+    protected final ElementQueryResult queryElements(List<By> locators, ElementProperty... properties) {
+        return withoutImplicitWait(() -> ElementQuery.run(webDriver, locators, properties));
+    }
+
+    /**
+     * Enables or disables event-driven waits for this page object. Defaults to the EVENT_DRIVEN_WAITS environment
+     * variable, true if not set.
+     *
+     * @param eventDrivenWaits True to observe the page instead of polling where possible.
+     */
+    protected final void setEventDrivenWaits(boolean eventDrivenWaits) {
+        this.eventDrivenWaits = eventDrivenWaits;
+    }
+
+    /**
+     * Sets the {@link PollingStrategy} used by {@link #webDriverWait(Function, long, String)}.
+     *
+     * @param pollingStrategy {@link PollingStrategy} to use.
+     */
+    protected final void setPollingStrategy(PollingStrategy pollingStrategy) {
+        this.pollingStrategy = Objects.requireNonNull(pollingStrategy, "Polling strategy cannot be null");
+    }
+
+    /**
+     * Polls the function until it returns true, following the {@link PollingStrategy}. {@link NotFoundException}s are
+     * ignored while polling. Fails the test with the fail message if the function is not true within the timeout, or
+     * throws any other {@link WebDriverException}.
+     *
+     * @param function       Condition to wait for.
+     * @param timeoutSeconds Max seconds to wait.
+     * @param failMessage    Message to fail the test with.
+     * @return {@link WaitStats} of the wait.
+     */
+    protected final WaitStats webDriverWait(Function<WebDriver, Boolean> function, long timeoutSeconds, String failMessage) {
+        long start = System.nanoTime();
+        return waitUntil(function, start, start + TimeUnit.SECONDS.toNanos(timeoutSeconds), 0, failMessage);
+    }
+
+    /**
+     * Runs the wait script in the page, which returns once the element is displayed or the timeout passes.
+     *
+     * @return Boolean true if the element was seen displayed, false on timeout, null if the page could not be observed.
+     */
+    private Boolean observeVisible(ScriptLocator locator, long timeoutMillis) {
         try {
-            wait.until(function);
+            timeouts.ensureScriptTimeout(timeoutMillis + SCRIPT_TIMEOUT_MARGIN_MILLIS);
+            Object result = ((JavascriptExecutor) webDriver).executeAsyncScript(
+                    InjectedScripts.get(InjectedScripts.WAIT_FOR_VISIBLE), locator.getStrategy(), locator.getValue(),
+                    timeoutMillis);
+            return result instanceof Boolean ? (Boolean) result : null;
         } catch (WebDriverException e) {
+            LOGGER.trace("Falling back to polling, page could not be observed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Runs the page ready script, which returns once the page is quiescent or the timeout passes.
+     *
+     * @return The script's result, or null if the page could not be observed, e.g. because it navigated away.
+     */
+    private Map<?, ?> observePageReady(long quietMillis, long timeoutMillis) {
+        try {
+            timeouts.ensureScriptTimeout(timeoutMillis + SCRIPT_TIMEOUT_MARGIN_MILLIS);
+            Object result = ((JavascriptExecutor) webDriver).executeAsyncScript(
+                    InjectedScripts.get(InjectedScripts.WAIT_FOR_PAGE_READY), quietMillis, timeoutMillis);
+            return result instanceof Map ? (Map<?, ?>) result : null;
+        } catch (WebDriverException e) {
+            LOGGER.trace("Page could not be observed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private WaitStats waitUntil(Function<WebDriver, Boolean> function, long startNanos, long deadlineNanos,
+                                int pollsSoFar, String failMessage) {
+        WaitStats stats = withoutImplicitWait(() -> poll(function, startNanos, deadlineNanos, pollsSoFar));
+        LOGGER.trace("Wait " + stats);
+        if (!stats.isSatisfied()) {
             Assert.fail(failMessage);
         }
-        setImplicitWaitToDefault();
+        return stats;
+    }
+
+    private WaitStats poll(Function<WebDriver, Boolean> function, long start, long deadline, int pollsSoFar) {
+        int polls = pollsSoFar;
+        while (true) {
+            polls++;
+            try {
+                if (Boolean.TRUE.equals(function.apply(webDriver))) {
+                    return new WaitStats(polls, elapsedMillis(start), true);
+                }
+            } catch (NotFoundException e) {
+                //keep polling, the element may not exist yet
+            } catch (WebDriverException e) {
+                return new WaitStats(polls, elapsedMillis(start), false);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return new WaitStats(polls, elapsedMillis(start), false);
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(TimeUnit.MILLISECONDS.toNanos(pollingStrategy.intervalMillis(polls)),
+                        remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new WaitStats(polls, elapsedMillis(start), false);
+            }
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 }
@@ -10,12 +10,16 @@ public abstract class AbstractHooks {
     }
 
     /**
-     * Clients should call this in their Cucumber {@link Before} hooks method.
+     * Clients should call this in their Cucumber {@link Before} hooks method. The scenario's log context is set before
+     * its driver is created, so every line logged for the scenario from here on is kept, see
+     * {@link ScenarioLogContext}.
      *
      * @param scenario {@link Scenario} Cucumber scenario being executed
      */
     protected final void beforeHook(Scenario scenario) {
-        Driver driver = DriverFactory.createDriver(scenario);
+        SessionKey key = DriverFactory.getSessionKey();
+        ScenarioLogContext.start(scenario, key);
+        Driver driver = DriverFactory.createDriver(scenario, key);
         DriverManager.setDriver(driver);
     }
 
@@ -27,6 +31,7 @@ public abstract class AbstractHooks {
     protected final void afterHook(Scenario scenario) {
         DriverManager.afterScenarioTeardown();
         SauceServiceManager.afterScenarioTeardown(scenario);
+        ScenarioLogContext.end(scenario.isFailed());
     }
 }
 
@@ -0,0 +1,278 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static framework.Constants.ENV_ADAPTIVE_CONCURRENCY;
+import static framework.Constants.ENV_ADAPTIVE_MAX_SESSIONS;
+import static framework.Constants.ENV_ADAPTIVE_SESSION_MEMORY_MB;
+
+/**
+ * Sizes the number of concurrently open local browser sessions, idle pooled ones included, from the host's resources,
+ * and keeps adjusting it while the suite runs: the limit grows by one while cores and free memory allow, and shrinks
+ * when the host is overloaded, memory runs low, or sessions created since the last adjustment are well slower than
+ * the fastest of the last {@link #BASELINE_CREATIONS} creations. Creation times are only used while sessions are being
+ * created, so once scenarios reuse pooled sessions an old slow creation no longer shrinks the limit.
+ * <p>
+ * Memory and load are read from /proc on Linux. On other hosts only the processor count is used.
+ */
+final class AdaptiveConcurrency {
+
+    private static final Logger LOGGER = LoggerService.getLogger(AdaptiveConcurrency.class);
+    private static final Path MEMINFO = Paths.get("/proc/meminfo");
+    private static final Path LOADAVG = Paths.get("/proc/loadavg");
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final long SESSION_MEMORY_MB = EnvVars.getLong(ENV_ADAPTIVE_SESSION_MEMORY_MB, 500);
+    private static final long RESERVED_MEMORY_MB = 1024;
+    private static final int CEILING = Math.max(1, EnvVars.getInt(ENV_ADAPTIVE_MAX_SESSIONS, CORES * 2));
+    private static final long ADJUST_INTERVAL_SECONDS = 5;
+    private static final double SLOW_CREATION_FACTOR = 2.0;
+    private static final int BASELINE_CREATIONS = 20;
+    private static final long CREATION_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final ReentrantLock LOCK = new ReentrantLock(true);
+    private static final Condition SLOT_FREED = LOCK.newCondition();
+    private static final long[] RECENT_CREATION_NANOS = new long[BASELINE_CREATIONS]; //guarded by LOCK
+    private static int limit; //guarded by LOCK
+    private static int inUse; //guarded by LOCK
+    private static int peakLimit; //guarded by LOCK
+    private static int lowestLimit; //guarded by LOCK
+    private static double creationEwmaNanos; //guarded by LOCK
+    private static long lastCreationAtNanos; //guarded by LOCK
+    private static long creations; //guarded by LOCK
+    private static int creationsSinceAdjust; //guarded by LOCK
+    private static volatile boolean enabled;
+    private static ScheduledExecutorService adjuster;
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.STOP, "stop adaptive concurrency", AdaptiveConcurrency::stop);
+    }
+
+    private AdaptiveConcurrency() {}
+
+    /**
+     * Returns True if adaptive concurrency applies to a run: a local parallel suite without an explicit thread count,
+     * unless {@link Constants#ENV_ADAPTIVE_CONCURRENCY} is false.
+     *
+     * @param driverMode       {@link DriverFactory.DriverMode} of the run.
+     * @param threadCountIsSet True if the thread count was set explicitly.
+     * @return Boolean true or false.
+     */
+    static boolean appliesTo(DriverFactory.DriverMode driverMode, boolean threadCountIsSet) {
+        return driverMode == DriverFactory.DriverMode.LOCAL_PARALLEL_SUITE && !threadCountIsSet
+                && EnvVars.getBoolean(ENV_ADAPTIVE_CONCURRENCY, true);
+    }
+
+    /**
+     * Returns the most sessions adaptive concurrency will ever allow, used as the suite's thread count.
+     *
+     * @return int max sessions.
+     */
+    static int getCeiling() {
+        return CEILING;
+    }
+
+    /**
+     * Sizes the initial limit from the host's resources and starts adjusting it in the background.
+     */
+    static synchronized void start() {
+        if (adjuster != null) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            limit = clamp(Math.min(CORES, memoryHeadroomSessions()));
+            peakLimit = limit;
+            lowestLimit = limit;
+        } finally {
+            LOCK.unlock();
+        }
+        enabled = true;
+        adjuster = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("adaptive-concurrency"));
+        adjuster.scheduleWithFixedDelay(AdaptiveConcurrency::adjust, ADJUST_INTERVAL_SECONDS, ADJUST_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+        LOGGER.info("Adaptive concurrency enabled, initial session limit: " + limit + ", ceiling: " + CEILING);
+    }
+
+    /**
+     * Stops adjusting the limit, lets waiting sessions through, and logs how the limit moved.
+     */
+    static synchronized void stop() {
+        if (adjuster == null) {
+            return;
+        }
+        adjuster.shutdownNow();
+        adjuster = null;
+        enabled = false;
+        LOCK.lock();
+        try {
+            SLOT_FREED.signalAll();
+            LOGGER.info("Adaptive concurrency final session limit: " + limit + ", range: " + lowestLimit + "-"
+                    + peakLimit);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns True if local sessions are currently gated by adaptive concurrency.
+     *
+     * @return Boolean true or false.
+     */
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a slot once the number of open sessions is below the current limit, waiting up to a timeout.
+     *
+     * @param timeoutNanos Most nanoseconds to wait, 0 to not wait.
+     * @return Boolean true if a slot was taken.
+     */
+    static boolean tryAcquire(long timeoutNanos) {
+        LOCK.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (enabled && inUse >= limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = SLOT_FREED.awaitNanos(remaining);
+            }
+            inUse++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting for an adaptive session slot", e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Frees a slot taken by {@link #tryAcquire(long)}.
+     */
+    static void release() {
+        LOCK.lock();
+        try {
+            inUse--;
+            SLOT_FREED.signal();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records how long creating a local session took. The average restarts from this creation if the previous one was
+     * over {@link #CREATION_EXPIRY_NANOS} ago.
+     *
+     * @param nanos Session creation time in nanoseconds.
+     */
+    static void recordSessionCreation(long nanos) {
+        LOCK.lock();
+        try {
+            long now = System.nanoTime();
+            boolean expired = creations == 0 || now - lastCreationAtNanos > CREATION_EXPIRY_NANOS;
+            creationEwmaNanos = expired ? nanos : 0.7 * creationEwmaNanos + 0.3 * nanos;
+            lastCreationAtNanos = now;
+            RECENT_CREATION_NANOS[(int) (creations++ % BASELINE_CREATIONS)] = nanos;
+            creationsSinceAdjust++;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Shrinks the limit by one if the host is overloaded, low on memory, or creating sessions slowly, else grows it by
+     * one if the current limit is in use and there is room for another session.
+     */
+    private static void adjust() {
+        double load = loadAverage();
+        int memorySessions = memoryHeadroomSessions();
+        LOCK.lock();
+        try {
+            boolean overloaded = load > CORES * 1.5;
+            boolean slowCreation = creationsSinceAdjust > 0
+                    && creationEwmaNanos > baselineCreationNanos() * SLOW_CREATION_FACTOR;
+            creationsSinceAdjust = 0;
+            boolean lowMemory = memorySessions < 0;
+            int previous = limit;
+            if (overloaded || slowCreation || lowMemory) {
+                limit = clamp(limit - 1);
+            } else if (inUse >= limit && memorySessions > 0 && load < CORES) {
+                limit = clamp(limit + 1);
+                SLOT_FREED.signal();
+            }
+            if (limit != previous) {
+                peakLimit = Math.max(peakLimit, limit);
+                lowestLimit = Math.min(lowestLimit, limit);
+                LOGGER.debug("Adaptive session limit " + previous + " -> " + limit + " (load: " + load
+                        + ", memory headroom sessions: " + memorySessions + ", creation ewma ms: "
+                        + TimeUnit.NANOSECONDS.toMillis((long) creationEwmaNanos) + ")");
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns the fastest of the last {@link #BASELINE_CREATIONS} session creations. Must be called holding LOCK.
+     */
+    private static long baselineCreationNanos() {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < Math.min(creations, BASELINE_CREATIONS); i++) {
+            fastest = Math.min(fastest, RECENT_CREATION_NANOS[i]);
+        }
+        return fastest;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(1, Math.min(CEILING, value));
+    }
+
+    /**
+     * Returns how many more sessions fit in available memory after {@link #RESERVED_MEMORY_MB}, negative if memory is
+     * already below the reserve, or {@link #CEILING} if available memory is unknown.
+     */
+    private static int memoryHeadroomSessions() {
+        long availableMb = readMemAvailableMb();
+        if (availableMb < 0) {
+            return CEILING;
+        }
+        long headroom = availableMb - RESERVED_MEMORY_MB;
+        return headroom < 0 ? -1 : (int) Math.min(CEILING, headroom / SESSION_MEMORY_MB);
+    }
+
+    private static long readMemAvailableMb() {
+        try {
+            List<String> lines = Files.readAllLines(MEMINFO, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.startsWith("MemAvailable:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024; //value is in kB
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            //not Linux, or an older kernel without MemAvailable
+        }
+        return -1;
+    }
+
+    private static double loadAverage() {
+        try {
+            return Double.parseDouble(new String(Files.readAllBytes(LOADAVG), StandardCharsets.UTF_8).split(" ")[0]);
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorates the {@link CommandExecutor} of a {@link RemoteWebDriver} session, so every command of the session can be
+ * observed, including commands sent through {@link org.openqa.selenium.WebElement}s, while the
+ * {@link org.openqa.selenium.WebDriver} keeps its type.
+ */
+final class CommandExecutors {
+
+    private static final Logger LOGGER = LoggerService.getLogger(CommandExecutors.class);
+    private static final Method SET_COMMAND_EXECUTOR = commandExecutorSetter();
+
+    private CommandExecutors() {}
+
+    /**
+     * Replaces the session's {@link CommandExecutor} with a decorator of it.
+     *
+     * @param webDriver {@link RemoteWebDriver} session.
+     * @param decorator Returns the decorator of the session's current {@link CommandExecutor}.
+     * @return Boolean true if the executor was replaced.
+     */
+    static synchronized boolean decorate(RemoteWebDriver webDriver, UnaryOperator<CommandExecutor> decorator) {
+        if (SET_COMMAND_EXECUTOR == null) {
+            return false;
+        }
+        try {
+            SET_COMMAND_EXECUTOR.invoke(webDriver, decorator.apply(webDriver.getCommandExecutor()));
+            return true;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            LOGGER.warn("Failed to decorate the command executor of " + webDriver + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * {@link RemoteWebDriver} only lets subclasses replace the executor, and sessions are created by Selenium.
+     */
+    private static Method commandExecutorSetter() {
+        try {
+            Method method = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+            method.setAccessible(true);
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("WebDriver commands cannot be decorated: " + e);
+            return null;
+        }
+    }
+}
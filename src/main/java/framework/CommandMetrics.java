@@ -0,0 +1,222 @@
+package framework;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import static framework.Constants.ENV_COMMAND_METRICS;
+import static framework.Constants.ENV_COMMAND_METRICS_FILE;
+
+/**
+ * Records the latency of every WebDriver command, such as findElement, clickElement, get, executeScript or quit, per
+ * browser and {@link DriverFactory.DriverMode}, when {@link Constants#ENV_COMMAND_METRICS} is true. Commands are timed
+ * by decorating the session's {@link CommandExecutor} through {@link CommandExecutors}.
+ * <p>
+ * Percentiles per scenario and for the whole suite are written as JSON to {@link Constants#ENV_COMMAND_METRICS_FILE}
+ * at the end of the run, see {@link SuiteLifecycle}.
+ */
+final class CommandMetrics {
+
+    private static final Logger LOGGER = LoggerService.getLogger(CommandMetrics.class);
+    private static final boolean ENABLED = EnvVars.getBoolean(ENV_COMMAND_METRICS, false);
+    private static final Path FILE = Paths.get(EnvVars.getString(ENV_COMMAND_METRICS_FILE, "target/command-latency.json"));
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+    private static final ConcurrentMap<String, LatencyHistogram> SUITE = new ConcurrentHashMap<>();
+    private static final Queue<JsonObject> SCENARIOS = new ConcurrentLinkedQueue<>();
+
+    static {
+        if (ENABLED) {
+            SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "export command metrics", CommandMetrics::export);
+        }
+    }
+
+    private CommandMetrics() {}
+
+    /**
+     * Starts attributing a {@link Driver}'s commands to a scenario, instrumenting its session on first use.
+     *
+     * @param driver       {@link Driver} running the scenario.
+     * @param key          {@link SessionKey} of the session, used to tag its commands.
+     * @param scenarioName Name of the scenario.
+     */
+    static void startScenario(Driver driver, SessionKey key, String scenarioName) {
+        if (!ENABLED) {
+            return;
+        }
+        InstrumentedExecutor executor = instrument(driver.getWebDriver(), key);
+        if (executor != null) {
+            executor.scenario = new ScenarioCommands(scenarioName, key);
+        }
+    }
+
+    /**
+     * Stops attributing a {@link Driver}'s commands to its scenario and keeps the scenario's percentiles for export.
+     * Commands sent afterwards, such as quit, only count towards the suite.
+     *
+     * @param driver {@link Driver} that ran the scenario.
+     */
+    static void endScenario(Driver driver) {
+        if (!ENABLED || !(driver.getWebDriver() instanceof RemoteWebDriver)) {
+            return;
+        }
+        CommandExecutor executor = ((RemoteWebDriver) driver.getWebDriver()).getCommandExecutor();
+        if (executor instanceof InstrumentedExecutor) {
+            ScenarioCommands scenario = ((InstrumentedExecutor) executor).scenario;
+            ((InstrumentedExecutor) executor).scenario = null;
+            if (scenario != null) {
+                SCENARIOS.add(scenario.toJson());
+            }
+        }
+    }
+
+    /**
+     * Writes the suite and scenario percentiles to {@link #FILE}. Safe to call more than once, each call writes
+     * everything recorded so far.
+     */
+    static synchronized void export() {
+        if (!ENABLED || SUITE.isEmpty()) {
+            return;
+        }
+        JsonObject json = new JsonObject();
+        JsonArray suite = new JsonArray();
+        new TreeMap<>(SUITE).forEach((tag, histogram) -> {
+            String[] parts = tag.split("\\|", 3);
+            JsonObject command = new JsonObject();
+            command.addProperty("browser", parts[0]);
+            command.addProperty("driverMode", parts[1]);
+            suite.add(toJson(command, parts[2], histogram));
+        });
+        json.add("suite", suite);
+        JsonArray scenarios = new JsonArray();
+        SCENARIOS.forEach(scenarios::add);
+        json.add("scenarios", scenarios);
+        try {
+            Files.createDirectories(FILE.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+            }
+            LOGGER.info(Messaging.createdFile(FILE.toString()));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write command metrics to " + FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the session's {@link CommandExecutor} with an {@link InstrumentedExecutor}, unless already done.
+     *
+     * @return The session's {@link InstrumentedExecutor}, or null if the {@link WebDriver} cannot be instrumented.
+     */
+    private static synchronized InstrumentedExecutor instrument(WebDriver webDriver, SessionKey key) {
+        if (!(webDriver instanceof RemoteWebDriver)) {
+            return null;
+        }
+        RemoteWebDriver remoteWebDriver = (RemoteWebDriver) webDriver;
+        CommandExecutor executor = remoteWebDriver.getCommandExecutor();
+        if (executor instanceof InstrumentedExecutor) {
+            return (InstrumentedExecutor) executor;
+        }
+        InstrumentedExecutor instrumented = new InstrumentedExecutor(executor, key);
+        return CommandExecutors.decorate(remoteWebDriver, current -> instrumented) ? instrumented : null;
+    }
+
+    private static String tag(SessionKey key, String commandName) {
+        return key.getBrowser() + "|" + key.getDriverMode() + "|" + commandName;
+    }
+
+    private static JsonObject toJson(JsonObject json, String commandName, LatencyHistogram histogram) {
+        json.addProperty("command", commandName);
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("meanMs", round(histogram.getMeanMillis()));
+        for (double percentile : PERCENTILES) {
+            json.addProperty("p" + (int) percentile + "Ms", round(histogram.getPercentileMillis(percentile)));
+        }
+        json.addProperty("maxMs", round(histogram.getMaxMillis()));
+        return json;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+
+    /**
+     * Times each command before handing it to the session's original {@link CommandExecutor}.
+     */
+    private static final class InstrumentedExecutor implements CommandExecutor {
+
+        private final CommandExecutor delegate;
+        private final SessionKey key;
+        private final Map<String, LatencyHistogram> suiteHistograms = new ConcurrentHashMap<>();
+        private volatile ScenarioCommands scenario;
+
+        private InstrumentedExecutor(CommandExecutor delegate, SessionKey key) {
+            this.delegate = delegate;
+            this.key = key;
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return delegate.execute(command);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                suiteHistograms.computeIfAbsent(command.getName(),
+                        name -> SUITE.computeIfAbsent(tag(key, name), t -> new LatencyHistogram())).record(nanos);
+                ScenarioCommands current = scenario;
+                if (current != null) {
+                    current.record(command.getName(), nanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Command latencies of one scenario run.
+     */
+    private static final class ScenarioCommands {
+
+        private final String name;
+        private final SessionKey key;
+        private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+        private ScenarioCommands(String name, SessionKey key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        private void record(String commandName, long nanos) {
+            histograms.computeIfAbsent(commandName, n -> new LatencyHistogram()).record(nanos);
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("scenario", name);
+            json.addProperty("browser", key.getBrowser());
+            json.addProperty("driverMode", key.getDriverMode().name());
+            JsonArray commands = new JsonArray();
+            new TreeMap<>(histograms).forEach((commandName, histogram) ->
+                    commands.add(CommandMetrics.toJson(new JsonObject(), commandName, histogram)));
+            json.add("commands", commands);
+            return json;
+        }
+    }
+}
@@ -8,6 +8,7 @@ final class Constants {
     static final String INTERNET_EXPLORER_BROWSER = "INTERNET EXPLORER";
     static final String MICROSOFT_EDGE_BROWSER = "MICROSOFT EDGE";
     static final String MICROSOFTEDGE_NO_SPACE_CHAR = "MICROSOFTEDGE";
+    static final String FEATURES_DIRECTORY = "src/test/resources/features/";
 
     //System properties keys
     static final String PROP_USER_NAME = "user.name";
@@ -18,6 +19,50 @@ final class Constants {
     static final String ENV_BROWSERS = "BROWSERS";
     static final String ENV_PROJECT_NAME = "PROJECT_NAME";
     static final String ENV_CUCUMBER_OPTIONS = "CUCUMBER_OPTIONS";
+    static final String ENV_SESSION_POOL = "SESSION_POOL";
+    static final String ENV_SESSION_POOL_MAX_USES = "SESSION_POOL_MAX_USES";
+    static final String ENV_SESSION_POOL_MAX_AGE_SECONDS = "SESSION_POOL_MAX_AGE_SECONDS";
+    static final String ENV_WARM_SESSIONS = "WARM_SESSIONS";
+    static final String ENV_TEARDOWN_THREADS = "TEARDOWN_THREADS";
+    static final String ENV_TEARDOWN_QUEUE_SIZE = "TEARDOWN_QUEUE_SIZE";
+    static final String ENV_TEARDOWN_TIMEOUT_SECONDS = "TEARDOWN_TIMEOUT_SECONDS";
+    static final String ENV_CHROMEDRIVER_SESSIONS_PER_SERVICE = "CHROMEDRIVER_SESSIONS_PER_SERVICE";
+    static final String ENV_DRIVER_CACHE_DIR = "DRIVER_CACHE_DIR";
+    static final String ENV_DRIVER_CACHE_MAX_AGE_DAYS = "DRIVER_CACHE_MAX_AGE_DAYS";
+    static final String ENV_SCENARIO_HISTORY_FILE = "SCENARIO_HISTORY_FILE";
+    static final String ENV_SCENARIO_DEFAULT_ESTIMATE_MILLIS = "SCENARIO_DEFAULT_ESTIMATE_MILLIS";
+    static final String ENV_SHARD_INDEX = "SHARD_INDEX";
+    static final String ENV_SHARD_TOTAL = "SHARD_TOTAL";
+    static final String ENV_SHARD_STRATEGY = "SHARD_STRATEGY";
+    static final String ENV_MAX_SESSIONS = "MAX_SESSIONS";
+    static final String ENV_ADAPTIVE_CONCURRENCY = "ADAPTIVE_CONCURRENCY";
+    static final String ENV_ADAPTIVE_MAX_SESSIONS = "ADAPTIVE_MAX_SESSIONS";
+    static final String ENV_ADAPTIVE_SESSION_MEMORY_MB = "ADAPTIVE_SESSION_MEMORY_MB";
+    static final String ENV_WAIT_POLL_INITIAL_MILLIS = "WAIT_POLL_INITIAL_MILLIS";
+    static final String ENV_WAIT_POLL_MAX_MILLIS = "WAIT_POLL_MAX_MILLIS";
+    static final String ENV_WAIT_POLL_MULTIPLIER = "WAIT_POLL_MULTIPLIER";
+    static final String ENV_WAIT_POLL_JITTER = "WAIT_POLL_JITTER";
+    static final String ENV_EVENT_DRIVEN_WAITS = "EVENT_DRIVEN_WAITS";
+    static final String ENV_PAGE_READY_QUIET_MILLIS = "PAGE_READY_QUIET_MILLIS";
+    static final String ENV_COMMAND_METRICS = "COMMAND_METRICS";
+    static final String ENV_COMMAND_METRICS_FILE = "COMMAND_METRICS_FILE";
+    static final String ENV_HTTP_MAX_CONNECTIONS = "HTTP_MAX_CONNECTIONS";
+    static final String ENV_HTTP_MAX_CONNECTIONS_PER_ROUTE = "HTTP_MAX_CONNECTIONS_PER_ROUTE";
+    static final String ENV_HTTP_CONNECT_TIMEOUT_SECONDS = "HTTP_CONNECT_TIMEOUT_SECONDS";
+    static final String ENV_HTTP_READ_TIMEOUT_SECONDS = "HTTP_READ_TIMEOUT_SECONDS";
+    static final String ENV_HTTP_KEEP_ALIVE_SECONDS = "HTTP_KEEP_ALIVE_SECONDS";
+    static final String ENV_REPORT_QUEUE_SIZE = "REPORT_QUEUE_SIZE";
+    static final String ENV_REPORT_EVENTS_FILE = "REPORT_EVENTS_FILE";
+    static final String ENV_REPORT_FSYNC_MILLIS = "REPORT_FSYNC_MILLIS";
+    static final String ENV_SAUCE_REST_URL = "SAUCE_REST_URL";
+    static final String ENV_SAUCE_UPDATE_THREADS = "SAUCE_UPDATE_THREADS";
+    static final String ENV_SAUCE_API_REQUESTS_PER_SECOND = "SAUCE_API_REQUESTS_PER_SECOND";
+    static final String ENV_SAUCE_UPDATE_RETRIES = "SAUCE_UPDATE_RETRIES";
+    static final String ENV_SAUCE_CONCURRENCY_REFRESH_SECONDS = "SAUCE_CONCURRENCY_REFRESH_SECONDS";
+    static final String ENV_REMOTE_ENDPOINTS = "REMOTE_ENDPOINTS";
+    static final String ENV_SCENARIO_LOG_FILES = "SCENARIO_LOG_FILES";
+    static final String ENV_SCENARIO_LOG_BUFFER_SIZE = "SCENARIO_LOG_BUFFER_SIZE";
+    static final String ENV_LOG_LEVEL = "LOG_LEVEL";
 
     static final String ENV_SAUCE_USERNAME = "SAUCE_USERNAME";
     static final String ENV_SAUCE_API_KEY = "SAUCE_API_KEY";
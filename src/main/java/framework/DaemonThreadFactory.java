@@ -0,0 +1,28 @@
+package framework;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the framework's background threads: daemon threads, so they never keep the JVM alive, named after their
+ * purpose and numbered, e.g. teardown-1, so they can be told apart in logs and thread dumps.
+ */
+final class DaemonThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * @param name String name of the threads, each thread gets "-" and its number appended.
+     */
+    DaemonThreadFactory(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
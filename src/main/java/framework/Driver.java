@@ -5,9 +5,20 @@ import org.openqa.selenium.WebDriver;
 final class Driver {
 
     private final WebDriver webDriver;
+    private final SessionPool.PooledSession pooledSession;
+    private final SessionTimeouts timeouts;
+    private SessionAdmission.Permit admissionPermit;
 
     Driver(WebDriver webDriver) {
         this.webDriver = webDriver;
+        this.pooledSession = null;
+        this.timeouts = new SessionTimeouts(webDriver);
+    }
+
+    Driver(SessionPool.PooledSession pooledSession) {
+        this.webDriver = pooledSession.getWebDriver();
+        this.pooledSession = pooledSession;
+        this.timeouts = pooledSession.getTimeouts();
     }
 
     /**
@@ -18,4 +29,39 @@ final class Driver {
     final WebDriver getWebDriver() {
         return webDriver;
     }
+
+    /**
+     * Returns the client-side timeout state of the {@link WebDriver} session.
+     *
+     * @return {@link SessionTimeouts} of the session.
+     */
+    final SessionTimeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Returns True if the {@link WebDriver} is borrowed from {@link SessionPool} and must be released instead of quit.
+     *
+     * @return Boolean true or false.
+     */
+    final boolean isPooled() {
+        return pooledSession != null;
+    }
+
+    final SessionPool.PooledSession getPooledSession() {
+        return pooledSession;
+    }
+
+    final void setAdmissionPermit(SessionAdmission.Permit admissionPermit) {
+        this.admissionPermit = admissionPermit;
+    }
+
+    /**
+     * Releases the {@link SessionAdmission} slot held by this {@link Driver}, if any.
+     */
+    final void releaseAdmissionPermit() {
+        if (admissionPermit != null) {
+            admissionPermit.release();
+        }
+    }
 }
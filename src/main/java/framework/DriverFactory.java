@@ -9,7 +9,7 @@ import static framework.Constants.ENV_GITLAB_CI;
 
 class DriverFactory {
 
-    private static final Logger LOGGER = LoggerService.getLogger();
+    private static final Logger LOGGER = LoggerService.getLogger(DriverFactory.class);
     private static final DriverMode driverMode;
 
     static {
@@ -20,32 +20,99 @@ class DriverFactory {
     private DriverFactory() {}
 
     /**
-     * Returns a new {@link WebDriver} object for a {@link Scenario}.
+     * Returns a {@link Driver} for a {@link Scenario}. The {@link WebDriver} is borrowed from {@link SessionPool} when
+     * the session can be pooled, else a new one is created once {@link SessionAdmission} admits it.
+     * Its commands are timed by {@link CommandMetrics} if enabled, and its session id is added to the scenario's log
+     * context, see {@link ScenarioLogContext}.
      *
      * @param scenario {@link Scenario} being executed.
+     * @param key      {@link SessionKey} of the scenario's session, see {@link #getSessionKey()}.
+     * @return {@link Driver} object.
+     */
+    static Driver createDriver(Scenario scenario, SessionKey key) {
+        Driver driver;
+        if (SessionPool.accepts(key)) {
+            driver = SessionPool.borrow(key, () -> createWebDriver(key, scenario));
+        } else {
+            SessionAdmission.Permit permit = SessionAdmission.acquire(key);
+            try {
+                driver = new Driver(createWebDriver(key, scenario));
+            } catch (RuntimeException e) {
+                permit.release();
+                throw e;
+            }
+            driver.setAdmissionPermit(permit);
+        }
+        ScenarioLogContext.setSessionId(driver.getWebDriver());
+        CommandMetrics.startScenario(driver, key, scenario.getName());
+        LOGGER.info(Messaging.arrow("WebDriver", driver.getWebDriver().toString()));
+        return driver;
+    }
+
+    /**
+     * Returns a new {@link WebDriver} object for a {@link SessionKey}.
+     *
+     * @param key      {@link SessionKey} of the session to create.
+     * @param scenario {@link Scenario} being executed, may be null for sessions not created for a scenario.
      * @return {@link WebDriver} object.
      */
-    static Driver createDriver(Scenario scenario) {
-        WebDriver webDriver;
-        switch (driverMode) {
+    static WebDriver createWebDriver(SessionKey key, Scenario scenario) {
+        switch (key.getDriverMode()) {
             case LOCAL:
-                webDriver = LocalWebDriverFactory.createWebDriver(LocalConfig.getBrowser());
-                break;
             case LOCAL_PARALLEL_SUITE:
-                webDriver = LocalWebDriverFactory.createWebDriver(ParallelSuite.getTestBrowser());
-                break;
+                long start = System.nanoTime();
+                WebDriver webDriver = LocalWebDriverFactory.createWebDriver(key.getBrowser());
+                AdaptiveConcurrency.recordSessionCreation(System.nanoTime() - start);
+                return webDriver;
             case LOCAL_SAUCE:
-                webDriver = SauceWebDriverFactory.createWebDriver(new LocalSauceVarsImpl(), scenario);
-                break;
             case SAUCE_PARALLEL_SUITE:
-                webDriver = SauceWebDriverFactory.createWebDriver(new ParallelSauceVarsImpl(), scenario);
-                break;
+                return SauceWebDriverFactory.createWebDriver(getSauceVars(key.getDriverMode()), scenario);
+            default:
+                throw new InvalidArgumentException(String.format("WebDriver creation not configured for %s : %s",
+                        DriverMode.class.getSimpleName(), key.getDriverMode()));
+        }
+    }
+
+    /**
+     * Returns the {@link ISauceVars} implementation for a Saucelabs {@link DriverMode}.
+     *
+     * @param mode {@link DriverMode#LOCAL_SAUCE} or {@link DriverMode#SAUCE_PARALLEL_SUITE}.
+     * @return {@link ISauceVars} object.
+     */
+    static ISauceVars getSauceVars(DriverMode mode) {
+        return mode == DriverMode.LOCAL_SAUCE ? new LocalSauceVarsImpl() : new ParallelSauceVarsImpl();
+    }
+
+    /**
+     * Returns the {@link SessionKey} describing the session the currently running scenario needs.
+     *
+     * @return {@link SessionKey} object.
+     */
+    static SessionKey getSessionKey() {
+        switch (driverMode) {
+            case LOCAL:
+                return new SessionKey(RunConfig.get().getLocalBrowser(), "", "", driverMode);
+            case LOCAL_SAUCE:
+                RunConfig config = RunConfig.get();
+                return new SessionKey(config.getLocalSauceBrowser(), config.getLocalSauceVersion(),
+                        config.getLocalSaucePlatform(), driverMode);
+            case LOCAL_PARALLEL_SUITE:
+            case SAUCE_PARALLEL_SUITE:
+                RunConfig.BrowserConfig test = ParallelSuite.getTestConfig();
+                return new SessionKey(test.getBrowser(), test.getVersion(), test.getPlatform(), driverMode);
             default:
                 throw new InvalidArgumentException(String.format("WebDriver creation not configured for %s : %s",
                         DriverMode.class.getSimpleName(), driverMode));
         }
-        LOGGER.info(Messaging.arrow("WebDriver", webDriver.toString()));
-        return new Driver(webDriver);
+    }
+
+    /**
+     * Returns the {@link DriverMode} determined when this class was initialized.
+     *
+     * @return The current {@link DriverMode}.
+     */
+    static DriverMode getCurrentDriverMode() {
+        return driverMode;
     }
 
     /**
@@ -59,7 +126,7 @@ class DriverFactory {
             mode = DriverMode.SAUCE_PARALLEL_SUITE;
         } else if (ParallelSuite.suiteIsRunning()) {
             mode = DriverMode.LOCAL_PARALLEL_SUITE;
-        } else if (LocalConfig.runInSauce()) {
+        } else if (RunConfig.get().runInSauce()) {
             mode = DriverMode.LOCAL_SAUCE;
         } else {
             mode = DriverMode.LOCAL;
@@ -28,14 +28,28 @@ class DriverManager {
     }
 
     /**
-     * Executes after-Scenario logic for the {@link Driver}. It is recommended to call this method in a Cucumber
-     * {@link io.cucumber.java.After} hook.
+     * Executes after-Scenario logic for the {@link Driver}. Pooled sessions are reset and returned to
+     * {@link SessionPool} on the calling thread, so the thread's next scenario can borrow its session again. Quitting
+     * a session, the slow part, runs in the background on {@link TeardownExecutor}. It is recommended to call this
+     * method in a Cucumber {@link io.cucumber.java.After} hook.
      */
     static void afterScenarioTeardown() {
         if (driverThreadLocal.get() == null) {
             return; //do nothing
         }
-        driverThreadLocal.get().getWebDriver().quit();
+        Driver driver = driverThreadLocal.get();
         driverThreadLocal.set(null);
+        CommandMetrics.endScenario(driver);
+        if (driver.isPooled()) {
+            SessionPool.release(driver);
+            return;
+        }
+        TeardownExecutor.submit("Quit " + driver.getWebDriver(), () -> {
+            try {
+                driver.getWebDriver().quit();
+            } finally {
+                driver.releaseAdmissionPermit();
+            }
+        });
     }
 }
@@ -0,0 +1,239 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps long-lived driver server processes (chromedriver, geckodriver) and opens sessions against them, instead of
+ * starting a new driver process for every {@link WebDriver}. Each browser gets a small pool of services that grows
+ * only when every running service already hosts its maximum number of sessions.
+ * <p>
+ * Sessions are opened with {@link RemoteWebDriver} against the service URL, because the browser specific drivers stop
+ * their service when the session quits.
+ */
+final class DriverServiceManager {
+
+    private static final Logger LOGGER = LoggerService.getLogger(DriverServiceManager.class);
+    private static final long HEALTH_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int HEALTH_CHECK_TIMEOUT_MILLIS = 2000;
+    private static final Map<String, List<ManagedService>> SERVICES = new HashMap<>();
+    private static boolean shutDown;
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.STOP_SERVICES, "stop driver services",
+                DriverServiceManager::shutdown);
+    }
+
+    private DriverServiceManager() {}
+
+    /**
+     * Returns a new {@link WebDriver} session hosted by a shared driver service for the browser.
+     *
+     * @param browser         Name of the browser the service drives.
+     * @param serviceFactory  Builds a new, unstarted {@link DriverService} for the browser.
+     * @param maxSessions     Max number of concurrent sessions a single service may host.
+     * @param capabilities    {@link Capabilities} of the new session.
+     * @return A new {@link WebDriver} object.
+     */
+    static WebDriver createWebDriver(String browser, Supplier<DriverService> serviceFactory, int maxSessions,
+                                     Capabilities capabilities) {
+        ManagedService service = lease(browser, serviceFactory, maxSessions);
+        try {
+            service.ensureStarted();
+            return new ServiceWebDriver(service, capabilities);
+        } catch (RuntimeException e) {
+            release(service);
+            throw e;
+        }
+    }
+
+    /**
+     * Stops every driver service. Sessions should be quit before this is called. Safe to call more than once.
+     */
+    static void shutdown() {
+        List<ManagedService> services = new ArrayList<>();
+        synchronized (SERVICES) {
+            shutDown = true;
+            SERVICES.values().forEach(services::addAll);
+            SERVICES.clear();
+        }
+        services.forEach(ManagedService::stop);
+        if (!services.isEmpty()) {
+            LOGGER.info("Stopped " + services.size() + " driver service(s)");
+        }
+    }
+
+    /**
+     * Reserves a session slot on the least loaded healthy service for the browser, adding a new service if all are
+     * full. Health checks may call the service, so they run before taking the lock, and the service is started by the
+     * caller, outside of the lock.
+     */
+    private static ManagedService lease(String browser, Supplier<DriverService> serviceFactory, int maxSessions) {
+        List<ManagedService> unhealthy = new ArrayList<>();
+        for (ManagedService service : snapshot(browser)) {
+            if (!service.isHealthy()) {
+                unhealthy.add(service);
+            }
+        }
+        List<ManagedService> removed = new ArrayList<>();
+        ManagedService leased = null;
+        synchronized (SERVICES) {
+            if (shutDown) {
+                throw new IllegalStateException(DriverServiceManager.class.getSimpleName() + " is shut down");
+            }
+            List<ManagedService> services = SERVICES.computeIfAbsent(browser, b -> new ArrayList<>());
+            for (ManagedService service : unhealthy) {
+                if (services.remove(service)) { //another thread may have replaced it already
+                    removed.add(service);
+                }
+            }
+            for (ManagedService service : services) {
+                if (service.sessions < maxSessions && (leased == null || service.sessions < leased.sessions)) {
+                    leased = service;
+                }
+            }
+            if (leased == null) {
+                leased = new ManagedService(browser, serviceFactory.get());
+                services.add(leased);
+            }
+            leased.sessions++;
+        }
+        if (!removed.isEmpty()) {
+            LOGGER.warn(removed.size() + " driver service(s) for " + browser
+                    + " failed their health check, replacing them");
+            removed.forEach(ManagedService::stop);
+        }
+        return leased;
+    }
+
+    private static List<ManagedService> snapshot(String browser) {
+        synchronized (SERVICES) {
+            List<ManagedService> services = SERVICES.get(browser);
+            return services == null ? new ArrayList<>() : new ArrayList<>(services);
+        }
+    }
+
+    private static void release(ManagedService service) {
+        synchronized (SERVICES) {
+            service.sessions--;
+        }
+    }
+
+    /**
+     * A {@link DriverService} shared between sessions, with the number of sessions it currently hosts.
+     */
+    private static final class ManagedService {
+
+        private final String browser;
+        private final DriverService driverService;
+        private int sessions; //guarded by SERVICES
+        private volatile boolean started;
+        private volatile boolean failed;
+        private volatile boolean unhealthy;
+        private volatile long lastHealthCheckNanos;
+
+        private ManagedService(String browser, DriverService driverService) {
+            this.browser = browser;
+            this.driverService = driverService;
+        }
+
+        private synchronized void ensureStarted() {
+            if (started) {
+                return;
+            }
+            if (failed) {
+                throw new WebDriverException("Driver service for " + browser + " failed to start");
+            }
+            try {
+                driverService.start();
+                started = true;
+                lastHealthCheckNanos = System.nanoTime();
+                LOGGER.debug(Messaging.arrow("Started driver service for " + browser, driverService.getUrl().toString()));
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw new WebDriverException("Driver service for " + browser + " failed to start", e);
+            }
+        }
+
+        /**
+         * Returns False if the service failed to start, or if its process or status endpoint is down. The status
+         * endpoint is polled at most once every {@link #HEALTH_CHECK_INTERVAL_NANOS}, and a failed check is kept.
+         */
+        private boolean isHealthy() {
+            if (failed || unhealthy) {
+                return false;
+            }
+            if (!started || System.nanoTime() - lastHealthCheckNanos < HEALTH_CHECK_INTERVAL_NANOS) {
+                return true;
+            }
+            lastHealthCheckNanos = System.nanoTime();
+            if (!driverService.isRunning() || !isStatusOk()) {
+                unhealthy = true;
+                return false;
+            }
+            return true;
+        }
+
+        private boolean isStatusOk() {
+            try {
+                HttpURLConnection connection =
+                        (HttpURLConnection) new URL(driverService.getUrl(), "status").openConnection();
+                connection.setConnectTimeout(HEALTH_CHECK_TIMEOUT_MILLIS);
+                connection.setReadTimeout(HEALTH_CHECK_TIMEOUT_MILLIS);
+                int code = connection.getResponseCode();
+                connection.disconnect();
+                return code == HttpURLConnection.HTTP_OK;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private void stop() {
+            try {
+                driverService.stop();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to stop driver service for " + browser + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A {@link RemoteWebDriver} session on a {@link ManagedService}, which frees its slot on the service when quit.
+     */
+    private static final class ServiceWebDriver extends RemoteWebDriver {
+
+        private final ManagedService service;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ServiceWebDriver(ManagedService service, Capabilities capabilities) {
+            super(HttpClientPool.createCommandExecutor(service.driverService.getUrl()), capabilities);
+            this.service = service;
+        }
+
+        @Override
+        public void quit() {
+            try {
+                super.quit();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release(service);
+                }
+            }
+        }
+    }
+}
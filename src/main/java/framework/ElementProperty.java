@@ -0,0 +1,40 @@
+package framework;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * Element properties that {@link AbstractDriver#queryElements(java.util.List, ElementProperty...)} can read.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public enum ElementProperty {
+
+    /**
+     * Whether the element is displayed, like {@link WebElement#isDisplayed()}.
+     */
+    DISPLAYED,
+
+    /**
+     * The element's visible text, like {@link WebElement#getText()}. Empty if the element is not displayed.
+     */
+    TEXT,
+
+    /**
+     * Whether the element is enabled, like {@link WebElement#isEnabled()}.
+     */
+    ENABLED,
+
+    /**
+     * Whether a checkbox, radio button or option is selected, like {@link WebElement#isSelected()}.
+     */
+    SELECTED,
+
+    /**
+     * The element's lower case tag name, like {@link WebElement#getTagName()}.
+     */
+    TAG_NAME,
+
+    /**
+     * The element's current value, like {@link WebElement#getAttribute(String)} for "value".
+     */
+    VALUE
+}
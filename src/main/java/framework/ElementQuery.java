@@ -0,0 +1,195 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs {@link AbstractDriver#queryElements(List, ElementProperty...)}. Locators supported by {@link ScriptLocator} are
+ * read by one injected script; any others, or all of them if the script cannot run, are read one command at a time.
+ */
+final class ElementQuery {
+
+    private static final Logger LOGGER = LoggerService.getLogger(ElementQuery.class);
+    private static final int MAX_ATTEMPTS = 2;
+    private static final AtomicLong QUERIES = new AtomicLong();
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+    private static final AtomicLong UNBATCHED_ROUND_TRIPS = new AtomicLong();
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log element query summary", ElementQuery::logSummary);
+    }
+
+    private final WebDriver webDriver;
+    private final Set<ElementProperty> properties;
+    private int roundTrips;
+
+    private ElementQuery(WebDriver webDriver, Collection<ElementProperty> properties) {
+        this.webDriver = webDriver;
+        this.properties = new LinkedHashSet<>(properties);
+    }
+
+    /**
+     * Reads the properties of the first element matching each locator. Must be called with the implicit wait at zero,
+     * so missing elements do not wait.
+     *
+     * @param webDriver  {@link WebDriver} to query.
+     * @param locators   {@link By} locators of the elements.
+     * @param properties {@link ElementProperty}s to read.
+     * @return {@link ElementQueryResult}.
+     */
+    static ElementQueryResult run(WebDriver webDriver, List<By> locators, ElementProperty... properties) {
+        ElementQuery query = new ElementQuery(webDriver, Arrays.asList(properties));
+        List<By> distinct = new ArrayList<>(new LinkedHashSet<>(locators));
+        List<ElementState> states = query.read(distinct);
+        QUERIES.incrementAndGet();
+        ROUND_TRIPS.addAndGet(query.roundTrips);
+        UNBATCHED_ROUND_TRIPS.addAndGet((long) distinct.size() * (1 + query.properties.size()));
+        ElementQueryResult result = new ElementQueryResult(states, query.roundTrips);
+        LOGGER.trace("Element query " + result);
+        return result;
+    }
+
+    /**
+     * Logs how many commands element queries took, against one command per element and property.
+     */
+    static void logSummary() {
+        if (QUERIES.get() == 0) {
+            return;
+        }
+        LOGGER.info("Element queries: " + QUERIES.get() + ", round trips: " + ROUND_TRIPS.get()
+                + ", one at a time would have taken: " + UNBATCHED_ROUND_TRIPS.get());
+    }
+
+    private List<ElementState> read(List<By> locators) {
+        List<Integer> scriptIndexes = new ArrayList<>();
+        List<By> scriptBys = new ArrayList<>();
+        List<ScriptLocator> scriptLocators = new ArrayList<>();
+        if (webDriver instanceof JavascriptExecutor) {
+            for (int i = 0; i < locators.size(); i++) {
+                ScriptLocator scriptLocator = ScriptLocator.of(locators.get(i));
+                if (scriptLocator != null) {
+                    scriptIndexes.add(i);
+                    scriptBys.add(locators.get(i));
+                    scriptLocators.add(scriptLocator);
+                }
+            }
+        }
+        ElementState[] states = new ElementState[locators.size()];
+        List<ElementState> scripted = scriptLocators.isEmpty() ? null : readWithScript(scriptBys, scriptLocators);
+        if (scripted != null) {
+            for (int i = 0; i < scripted.size(); i++) {
+                states[scriptIndexes.get(i)] = scripted.get(i);
+            }
+        }
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == null) {
+                states[i] = readWithCommands(locators.get(i));
+            }
+        }
+        return Arrays.asList(states);
+    }
+
+    /**
+     * Reads the given locators in one script. A script interrupted by a navigation is retried once.
+     *
+     * @return The states, or null if the script could not run.
+     */
+    private List<ElementState> readWithScript(List<By> locators, List<ScriptLocator> scriptLocators) {
+        List<List<String>> locatorArgs = new ArrayList<>();
+        scriptLocators.forEach(l -> locatorArgs.add(Arrays.asList(l.getStrategy(), l.getValue())));
+        List<String> propertyArgs = new ArrayList<>();
+        properties.forEach(p -> propertyArgs.add(p.name()));
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                roundTrips++;
+                Object result = ((JavascriptExecutor) webDriver).executeScript(
+                        InjectedScripts.get(InjectedScripts.QUERY_ELEMENTS), locatorArgs, propertyArgs);
+                return toStates(locators, result);
+            } catch (WebDriverException e) {
+                LOGGER.trace("Element query script failed on attempt " + attempt + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ElementState> toStates(List<By> locators, Object result) {
+        if (!(result instanceof List) || ((List<?>) result).size() != locators.size()) {
+            throw new WebDriverException("Unexpected element query script result: " + result);
+        }
+        List<ElementState> states = new ArrayList<>();
+        for (int i = 0; i < locators.size(); i++) {
+            Map<String, Object> values = (Map<String, Object>) ((List<?>) result).get(i);
+            if (!Boolean.TRUE.equals(values.get("supported"))) {
+                throw new WebDriverException("Element query script does not support " + locators.get(i));
+            }
+            Map<ElementProperty, Object> read = new EnumMap<>(ElementProperty.class);
+            for (ElementProperty property : properties) {
+                if (values.containsKey(property.name())) {
+                    read.put(property, values.get(property.name()));
+                }
+            }
+            states.add(new ElementState(locators.get(i), ((Number) values.get("count")).intValue(), read));
+        }
+        return states;
+    }
+
+    /**
+     * Reads one locator with a command per property. If the element goes stale in between, it is looked up again.
+     */
+    private ElementState readWithCommands(By locator) {
+        for (int attempt = 1; ; attempt++) {
+            roundTrips++;
+            List<WebElement> elements = webDriver.findElements(locator);
+            Map<ElementProperty, Object> read = new EnumMap<>(ElementProperty.class);
+            if (elements.isEmpty()) {
+                return new ElementState(locator, 0, read);
+            }
+            try {
+                for (ElementProperty property : properties) {
+                    roundTrips++;
+                    read.put(property, readProperty(elements.get(0), property));
+                }
+                return new ElementState(locator, elements.size(), read);
+            } catch (StaleElementReferenceException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Object readProperty(WebElement element, ElementProperty property) {
+        switch (property) {
+            case DISPLAYED:
+                return element.isDisplayed();
+            case TEXT:
+                return element.getText();
+            case ENABLED:
+                return element.isEnabled();
+            case SELECTED:
+                return element.isSelected();
+            case TAG_NAME:
+                return element.getTagName().toLowerCase();
+            case VALUE:
+                return element.getAttribute("value");
+            default:
+                throw new IllegalArgumentException("Unknown element property " + property);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package framework;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link ElementState} of each locator passed to
+ * {@link AbstractDriver#queryElements(java.util.List, ElementProperty...)}, and the number of WebDriver commands the
+ * query took.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ElementQueryResult {
+
+    private final Map<By, ElementState> states = new LinkedHashMap<>();
+    private final int roundTrips;
+
+    ElementQueryResult(List<ElementState> states, int roundTrips) {
+        states.forEach(state -> this.states.put(state.getLocator(), state));
+        this.roundTrips = roundTrips;
+    }
+
+    /**
+     * Returns the state of the element matching a locator. Throws {@link IllegalArgumentException} if the locator was
+     * not part of the query.
+     *
+     * @param locator {@link By} locator passed to the query.
+     * @return {@link ElementState} of the locator.
+     */
+    public ElementState get(By locator) {
+        ElementState state = states.get(locator);
+        if (state == null) {
+            throw new IllegalArgumentException(locator + " was not part of the query");
+        }
+        return state;
+    }
+
+    /**
+     * Returns the state of every locator, in query order.
+     *
+     * @return List of {@link ElementState}.
+     */
+    public List<ElementState> getStates() {
+        return Collections.unmodifiableList(new ArrayList<>(states.values()));
+    }
+
+    /**
+     * Returns the number of WebDriver commands sent to run the query.
+     *
+     * @return int round trips.
+     */
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    @Override
+    public String toString() {
+        return states.values() + " in " + roundTrips + " round trip(s)";
+    }
+}
@@ -0,0 +1,128 @@
+package framework;
+
+import org.openqa.selenium.By;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The properties of the first element matching a locator, as read by
+ * {@link AbstractDriver#queryElements(java.util.List, ElementProperty...)}. If no element matched, boolean properties
+ * are false and all others are null. Reading a property that was not queried throws {@link IllegalStateException}.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ElementState {
+
+    private final By locator;
+    private final int count;
+    private final Map<ElementProperty, Object> values;
+
+    ElementState(By locator, int count, Map<ElementProperty, Object> values) {
+        this.locator = locator;
+        this.count = count;
+        this.values = Collections.unmodifiableMap(new EnumMap<>(values));
+    }
+
+    /**
+     * Returns the locator the state was read for.
+     *
+     * @return {@link By} locator.
+     */
+    public By getLocator() {
+        return locator;
+    }
+
+    /**
+     * Returns True if at least one element matched the locator.
+     *
+     * @return Boolean true or false.
+     */
+    public boolean exists() {
+        return count > 0;
+    }
+
+    /**
+     * Returns how many elements matched the locator.
+     *
+     * @return int number of matching elements.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns True if the element is displayed.
+     *
+     * @return Boolean true or false.
+     */
+    public boolean isDisplayed() {
+        return getBoolean(ElementProperty.DISPLAYED);
+    }
+
+    /**
+     * Returns the element's visible text.
+     *
+     * @return String text.
+     */
+    public String getText() {
+        return getString(ElementProperty.TEXT);
+    }
+
+    /**
+     * Returns True if the element is enabled.
+     *
+     * @return Boolean true or false.
+     */
+    public boolean isEnabled() {
+        return getBoolean(ElementProperty.ENABLED);
+    }
+
+    /**
+     * Returns True if the element is selected.
+     *
+     * @return Boolean true or false.
+     */
+    public boolean isSelected() {
+        return getBoolean(ElementProperty.SELECTED);
+    }
+
+    /**
+     * Returns the element's lower case tag name.
+     *
+     * @return String tag name.
+     */
+    public String getTagName() {
+        return getString(ElementProperty.TAG_NAME);
+    }
+
+    /**
+     * Returns the element's value attribute.
+     *
+     * @return String value.
+     */
+    public String getValue() {
+        return getString(ElementProperty.VALUE);
+    }
+
+    private boolean getBoolean(ElementProperty property) {
+        return Boolean.TRUE.equals(get(property));
+    }
+
+    private String getString(ElementProperty property) {
+        Object value = get(property);
+        return value == null ? null : value.toString();
+    }
+
+    private Object get(ElementProperty property) {
+        if (!values.containsKey(property) && exists()) {
+            throw new IllegalStateException(property + " was not queried for " + locator);
+        }
+        return values.get(property);
+    }
+
+    @Override
+    public String toString() {
+        return locator + " " + (exists() ? values.toString() : "not found");
+    }
+}
@@ -0,0 +1,95 @@
+package framework;
+
+import com.google.common.base.Strings;
+
+final class EnvVars {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private EnvVars() {}
+
+    /**
+     * Returns the value of an environment variable parsed as an int, or the default value if the variable is not set.
+     *
+     * @param envName      String name of environment variable.
+     * @param defaultValue Value to use when the environment variable is null or empty.
+     * @return int value of the environment variable.
+     */
+    static int getInt(String envName, int defaultValue) {
+        String value = System.getenv(envName);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Error parsing " + envName + "=" + value + NEW_LINE + e);
+        }
+    }
+
+    /**
+     * Returns the value of an environment variable parsed as a long, or the default value if the variable is not set.
+     *
+     * @param envName      String name of environment variable.
+     * @param defaultValue Value to use when the environment variable is null or empty.
+     * @return long value of the environment variable.
+     */
+    static long getLong(String envName, long defaultValue) {
+        String value = System.getenv(envName);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Error parsing " + envName + "=" + value + NEW_LINE + e);
+        }
+    }
+
+    /**
+     * Returns the value of an environment variable parsed as a double, or the default value if the variable is not set.
+     *
+     * @param envName      String name of environment variable.
+     * @param defaultValue Value to use when the environment variable is null or empty.
+     * @return double value of the environment variable.
+     */
+    static double getDouble(String envName, double defaultValue) {
+        String value = System.getenv(envName);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Error parsing " + envName + "=" + value + NEW_LINE + e);
+        }
+    }
+
+    /**
+     * Returns the value of an environment variable parsed as a boolean, or the default value if the variable is not
+     * set.
+     *
+     * @param envName      String name of environment variable.
+     * @param defaultValue Value to use when the environment variable is null or empty.
+     * @return boolean value of the environment variable.
+     */
+    static boolean getBoolean(String envName, boolean defaultValue) {
+        String value = System.getenv(envName);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Returns the value of an environment variable, or the default value if the variable is not set.
+     *
+     * @param envName      String name of environment variable.
+     * @param defaultValue Value to use when the environment variable is null or empty.
+     * @return String value of the environment variable.
+     */
+    static String getString(String envName, String defaultValue) {
+        String value = System.getenv(envName);
+        return Strings.isNullOrEmpty(value) ? defaultValue : value.trim();
+    }
+}
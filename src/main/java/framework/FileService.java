@@ -1,16 +1,44 @@
 package framework;
 
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static framework.Constants.ENV_DRIVER_CACHE_DIR;
+import static framework.Constants.ENV_DRIVER_CACHE_MAX_AGE_DAYS;
 
 final class FileService {
 
-     private static final Logger LOGGER = LoggerService.getLogger();
+     private static final Logger LOGGER = LoggerService.getLogger(FileService.class);
+     private static final String DEFAULT_CACHE_DIR =
+             System.getProperty("user.home") + File.separator + ".bdd-framework" + File.separator + "drivers";
+     private static final String LOCK_SUFFIX = ".lock";
+     private static final String TEMP_SUFFIX = ".tmp";
+     private static final String HASH_SUFFIX = ".sha256";
 
      /**
       * Ensures the folders in the directory path exist. Does not overwriting existing files.
@@ -31,39 +59,175 @@ final class FileService {
     }
 
     /**
-     * Creates a .exe temp file for a resource. File should be in the resources directory of this project, and should
-     * NOT include a "/" prefix.
+     * Returns a file in the driver cache directory holding a copy of a resource. File should be in the resources
+     * directory of this project, and is resolved from the root of the classpath, e.g. "/chromedriver78.exe".
+     * <p>
+     * Cached files are named by the SHA-256 of the resource contents, so they are reused by every JVM and process that
+     * bundles the same resource, and replaced automatically when the resource changes. Extraction is done under a file
+     * lock and published with an atomic move, so concurrent processes never see a partially written file. Callers in
+     * the same JVM must not extract the same resource concurrently, see {@link LocalWebDriverFactory}.
      * <p>
-     * Note: .exe files in JARs need to be accessed via {@link FileOutputStream}, else the JVM won't know the file is
-     * executable and the file won't execute as expected.
+     * The hash is kept in a sidecar file with the size and modified time of the jar or file the resource is loaded
+     * from, so the resource is only hashed again when that changes.
      *
      * @param resourceName String name of .exe file resource.
-     * @return {@link File} Created temp file for the specified resource.
+     * @return {@link File} Cached file for the specified resource.
      */
-    static synchronized File getResourceAsTempFile(String resourceName, String tempPrefix, String tempSuffix) {
-        InputStream is = LocalWebDriverFactory.class.getResourceAsStream(resourceName);
-
-        File file;
+    static File getCachedResourceFile(String resourceName) {
         try {
-            file = File.createTempFile(tempPrefix, tempSuffix);
-            OutputStream os = new FileOutputStream(file);
+            Path cacheDir = Paths.get(EnvVars.getString(ENV_DRIVER_CACHE_DIR, DEFAULT_CACHE_DIR));
+            Files.createDirectories(cacheDir);
+            String fileName = getResourceHash(resourceName, cacheDir) + "-" + Paths.get(resourceName).getFileName();
+            Path cached = cacheDir.resolve(fileName);
+            if (!Files.isRegularFile(cached)) {
+                extractResource(resourceName, cacheDir, cached);
+            } else {
+                LOGGER.trace(Messaging.arrow("Loaded cached " + resourceName + " resource file", cached.toString()));
+            }
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            return cached.toFile();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            //2048 is just preference
-            byte[] b = new byte[2048];
-            int length;
+    /**
+     * Copies a resource into the cache while holding a lock on the entry's lock file, then removes stale entries. The
+     * lock is per entry, so different resources are extracted in parallel.
+     */
+    private static void extractResource(String resourceName, Path cacheDir, Path cached) throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(cacheDir.resolve(cached.getFileName() + LOCK_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            lockChannel.lock(); //released when the channel is closed
+            if (Files.isRegularFile(cached)) {
+                return; //extracted by another process while waiting for the lock
+            }
+            Path temp = Files.createTempFile(cacheDir, cached.getFileName().toString(), TEMP_SUFFIX);
+            try (InputStream is = openResource(resourceName)) {
+                Files.copy(is, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (!temp.toFile().setExecutable(true)) {
+                LOGGER.warn("Failed to make " + temp + " executable");
+            }
+            Files.move(temp, cached, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.trace(Messaging.arrow("Created file for " + resourceName + " resource", cached.toString()));
+            deleteStaleEntries(cacheDir);
+        }
+    }
 
-            while ((length = is.read(b)) != -1) {
-                os.write(b, 0, length);
+    /**
+     * Deletes cache entries not used within {@link Constants#ENV_DRIVER_CACHE_MAX_AGE_DAYS}, and temp files and lock
+     * files left behind by interrupted extractions or deleted entries. Entries still in use by a running driver may
+     * fail to delete, which is ignored.
+     */
+    private static void deleteStaleEntries(Path cacheDir) throws IOException {
+        long now = System.currentTimeMillis();
+        long maxEntryAge = TimeUnit.DAYS.toMillis(EnvVars.getLong(ENV_DRIVER_CACHE_MAX_AGE_DAYS, 30));
+        long maxTempAge = TimeUnit.HOURS.toMillis(1);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDir)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(LOCK_SUFFIX)) {
+                    deleteOrphanedLock(entry, now - maxTempAge);
+                    continue;
+                }
+                long age = now - Files.getLastModifiedTime(entry).toMillis();
+                if (age > (name.endsWith(TEMP_SUFFIX) ? maxTempAge : maxEntryAge)) {
+                    try {
+                        Files.deleteIfExists(entry);
+                        LOGGER.trace("Deleted stale driver cache entry: " + entry);
+                    } catch (IOException e) {
+                        LOGGER.debug("Could not delete stale driver cache entry " + entry + ": " + e.getMessage());
+                    }
+                }
             }
+        }
+    }
 
-            is.close();
-            os.close();
-            LOGGER.trace(Messaging.arrow("Created file for " + resourceName + " resource", file.toString()));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Deletes the lock file of an entry that no longer exists, if it was created before a time and no process holds
+     * it.
+     */
+    private static void deleteOrphanedLock(Path lock, long createdBeforeMillis) throws IOException {
+        String name = lock.getFileName().toString();
+        Path entry = lock.resolveSibling(name.substring(0, name.length() - LOCK_SUFFIX.length()));
+        if (Files.exists(entry) || Files.getLastModifiedTime(lock).toMillis() > createdBeforeMillis) {
+            return;
+        }
+        try (FileChannel lockChannel = FileChannel.open(lock, StandardOpenOption.WRITE)) {
+            if (lockChannel.tryLock() == null) {
+                return; //an extraction is running
+            }
+            Files.deleteIfExists(lock);
+            LOGGER.trace("Deleted orphaned driver cache lock: " + lock);
+        } catch (IOException | OverlappingFileLockException e) {
+            LOGGER.debug("Could not delete orphaned driver cache lock " + lock + ": " + e.getMessage());
         }
+    }
+
+    /**
+     * Returns the hex SHA-256 of a resource's contents, from its sidecar file in the cache directory if the resource's
+     * source is unchanged since it was written.
+     */
+    private static String getResourceHash(String resourceName, Path cacheDir)
+            throws IOException, NoSuchAlgorithmException {
+        String source = getResourceSource(resourceName);
+        Path sidecar = cacheDir.resolve(Paths.get(resourceName).getFileName() + HASH_SUFFIX);
+        if (source != null && Files.isRegularFile(sidecar)) {
+            List<String> lines = Files.readAllLines(sidecar, StandardCharsets.UTF_8);
+            if (lines.size() == 2 && lines.get(0).equals(source)) {
+                return lines.get(1);
+            }
+        }
+        String hash = hashResource(resourceName);
+        if (source != null) {
+            Path temp = Files.createTempFile(cacheDir, sidecar.getFileName().toString(), TEMP_SUFFIX);
+            Files.write(temp, Arrays.asList(source, hash), StandardCharsets.UTF_8);
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return hash;
+    }
 
-        file.deleteOnExit();
-        return file;
+    /**
+     * Returns the path, size and modified time of the jar or file a resource is loaded from, or null if it is loaded
+     * from anywhere else.
+     */
+    private static String getResourceSource(String resourceName) throws IOException {
+        URL url = FileService.class.getResource(resourceName);
+        if (url == null) {
+            throw new FileNotFoundException("Resource not found: " + resourceName);
+        }
+        try {
+            URL sourceUrl = url;
+            if ("jar".equals(url.getProtocol())) {
+                sourceUrl = ((JarURLConnection) url.openConnection()).getJarFileURL();
+            }
+            if (!"file".equals(sourceUrl.getProtocol())) {
+                return null;
+            }
+            File source = new File(sourceUrl.toURI());
+            return source.getAbsolutePath() + "|" + source.length() + "|" + source.lastModified();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the hex SHA-256 of a resource's contents.
+     */
+    private static String hashResource(String resourceName) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream is = new DigestInputStream(openResource(resourceName), digest)) {
+            ByteStreams.exhaust(is);
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    private static InputStream openResource(String resourceName) throws IOException {
+        InputStream is = FileService.class.getResourceAsStream(resourceName);
+        if (is == null) {
+            throw new FileNotFoundException("Resource not found: " + resourceName);
+        }
+        return is;
     }
 }
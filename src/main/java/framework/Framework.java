@@ -3,6 +3,8 @@ package framework;
 
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Paths;
+
 /**
  * Class containing static methods to access abstracted BDD-Framework functionality.
  */
@@ -12,13 +14,25 @@ public final class Framework {
     private Framework(){}
 
     /**
-     * Returns a {@link Logger} initialized with the name of the calling {@link Class}.
+     * Returns a {@link Logger} initialized with the name of {@link Framework}. Use {@link #getLogger(Class)} for a
+     * {@link Logger} named after the calling {@link Class}.
      *
-     * @return {@link Logger} object with correct Class name already set.
+     * @return {@link Logger} object with the Framework Class name set.
      */
     @SuppressWarnings("unused")
     public static Logger getLogger() {
-        return LoggerService.getLogger();
+        return getLogger(Framework.class);
+    }
+
+    /**
+     * Returns a {@link Logger} initialized with the name of the given {@link Class}.
+     *
+     * @param clazz The calling {@link Class}.
+     * @return {@link Logger} object with correct Class name already set.
+     */
+    @SuppressWarnings("unused")
+    public static Logger getLogger(Class<?> clazz) {
+        return LoggerService.getLogger(clazz);
     }
 
     /**
@@ -28,4 +42,28 @@ public final class Framework {
     public static void runTestsInParallel() {
         ParallelSuite.runSuite();
     }
+
+    /**
+     * Merges the Cucumber JSON reports of each shard of a sharded suite (see the SHARD_INDEX and SHARD_TOTAL environment variables) into one
+     * Cucumber JSON report and one Extent HTML report.
+     *
+     * @param outputDirectory   Directory to write the merged reports to.
+     * @param cucumberJsonFiles Cucumber JSON report paths, one per shard.
+     */
+    @SuppressWarnings("unused")
+    public static void mergeShardReports(String outputDirectory, String... cucumberJsonFiles) {
+        ShardReportMerger.merge(outputDirectory, cucumberJsonFiles);
+    }
+
+    /**
+     * Renders an Extent HTML report from the result event file a parallel suite streams its results to (see the
+     * REPORT_EVENTS_FILE environment variable), for example from a run that did not finish.
+     *
+     * @param eventFile Path of the result event file.
+     * @param htmlFile  Path of the HTML report to write.
+     */
+    @SuppressWarnings("unused")
+    public static void renderReport(String eventFile, String htmlFile) {
+        ReportRenderer.render(Paths.get(eventFile), Paths.get(htmlFile));
+    }
 }
@@ -0,0 +1,228 @@
+package framework;
+
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.internal.ApacheHttpClient;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static framework.Constants.ENV_HTTP_CONNECT_TIMEOUT_SECONDS;
+import static framework.Constants.ENV_HTTP_KEEP_ALIVE_SECONDS;
+import static framework.Constants.ENV_HTTP_MAX_CONNECTIONS;
+import static framework.Constants.ENV_HTTP_MAX_CONNECTIONS_PER_ROUTE;
+import static framework.Constants.ENV_HTTP_READ_TIMEOUT_SECONDS;
+
+/**
+ * One pool of keep-alive HTTP connections shared by every remote WebDriver session, whether on Saucelabs or on a local
+ * driver service, so sessions reuse connections instead of each managing their own. Also configures the timeouts of
+ * the Saucelabs REST client.
+ * <p>
+ * Connections per route and in total, connect and read timeouts, and how long idle connections are kept alive are set
+ * by the HTTP_* environment variables.
+ */
+final class HttpClientPool {
+
+    private static final Logger LOGGER = LoggerService.getLogger(HttpClientPool.class);
+    private static final int MAX_CONNECTIONS = EnvVars.getInt(ENV_HTTP_MAX_CONNECTIONS, 200);
+    private static final int MAX_CONNECTIONS_PER_ROUTE = EnvVars.getInt(ENV_HTTP_MAX_CONNECTIONS_PER_ROUTE, 100);
+    private static final int CONNECT_TIMEOUT_MILLIS =
+            (int) TimeUnit.SECONDS.toMillis(EnvVars.getInt(ENV_HTTP_CONNECT_TIMEOUT_SECONDS, 30));
+    private static final int READ_TIMEOUT_MILLIS =
+            (int) TimeUnit.SECONDS.toMillis(EnvVars.getInt(ENV_HTTP_READ_TIMEOUT_SECONDS, 600));
+    private static final long KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(EnvVars.getInt(ENV_HTTP_KEEP_ALIVE_SECONDS, 30));
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    private static final AtomicLong REQUESTS = new AtomicLong();
+    private static final AtomicLong CONNECTIONS_OPENED = new AtomicLong();
+    private static final AtomicLong REST_REQUESTS = new AtomicLong();
+    private static final HttpRequestInterceptor REQUEST_COUNTER = (request, context) -> REQUESTS.incrementAndGet();
+    private static final PoolingHttpClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+    private static final HttpClient.Factory FACTORY = HttpClientPool::createClient;
+
+    static {
+        /*
+        The Saucelabs REST client uses HttpURLConnection, which keeps alive at most http.maxConnections idle
+        connections per destination, 5 by default
+         */
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", String.valueOf(MAX_CONNECTIONS_PER_ROUTE));
+        }
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log HTTP connection metrics", HttpClientPool::logMetrics);
+        SuiteLifecycle.register(SuiteLifecycle.Phase.CLOSE_CONNECTIONS, "close HTTP connections",
+                HttpClientPool::shutdown);
+    }
+
+    private HttpClientPool() {}
+
+    /**
+     * Returns an {@link HttpCommandExecutor} for a remote end that sends its commands through the shared pool.
+     *
+     * @param remoteAddress URL of the remote end, may include user info for basic authentication.
+     * @return {@link HttpCommandExecutor} object.
+     */
+    static HttpCommandExecutor createCommandExecutor(URL remoteAddress) {
+        return new HttpCommandExecutor(Collections.emptyMap(), remoteAddress, FACTORY);
+    }
+
+    /**
+     * Applies the configured timeouts to a Saucelabs REST connection and counts it.
+     *
+     * @param connection {@link HttpURLConnection} opened by the REST client.
+     * @return The same connection.
+     */
+    static HttpURLConnection configure(HttpURLConnection connection) {
+        REST_REQUESTS.incrementAndGet();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        return connection;
+    }
+
+    /**
+     * Returns the share of WebDriver requests sent over a reused connection.
+     *
+     * @return double between 0 and 1.
+     */
+    static double getReuseRatio() {
+        long requests = REQUESTS.get();
+        return requests == 0 ? 0 : Math.max(0, requests - CONNECTIONS_OPENED.get()) / (double) requests;
+    }
+
+    /**
+     * Closes every pooled connection. Sessions should be quit before this is called. Safe to call more than once.
+     */
+    static void shutdown() {
+        CONNECTION_MANAGER.shutdown();
+    }
+
+    /**
+     * Logs requests, connections opened, the connection reuse ratio, and the pool's current state.
+     */
+    static void logMetrics() {
+        if (REQUESTS.get() == 0 && REST_REQUESTS.get() == 0) {
+            return;
+        }
+        PoolStats stats = CONNECTION_MANAGER.getTotalStats();
+        LOGGER.info("WebDriver HTTP requests: " + REQUESTS.get() + ", connections opened: " + CONNECTIONS_OPENED.get()
+                + ", reuse: " + Math.round(getReuseRatio() * 100) + "%, pool leased/idle/pending: " + stats.getLeased()
+                + "/" + stats.getAvailable() + "/" + stats.getPending() + ", Saucelabs REST requests: "
+                + REST_REQUESTS.get());
+    }
+
+    /**
+     * Creates an {@link HttpClient} on the shared pool. Clients are cheap, only the pool holds connections.
+     */
+    private static HttpClient createClient(URL url) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+                .setConnectionRequestTimeout(CONNECT_TIMEOUT_MILLIS)
+                .setSocketTimeout(READ_TIMEOUT_MILLIS)
+                .build();
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(CONNECTION_MANAGER)
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(KeepAliveStrategy.INSTANCE)
+                .addInterceptorFirst(REQUEST_COUNTER);
+        if (url.getUserInfo() != null) {
+            builder.setDefaultCredentialsProvider(credentials(url));
+        }
+        return new SharedClient(new ApacheHttpClient(builder.build(), url));
+    }
+
+    private static CredentialsProvider credentials(URL url) {
+        String userInfo = url.getUserInfo();
+        int separator = userInfo.indexOf(':');
+        try {
+            String user = URLDecoder.decode(separator < 0 ? userInfo : userInfo.substring(0, separator), StandardCharsets.UTF_8.name());
+            String password = separator < 0 ? "" : URLDecoder.decode(userInfo.substring(separator + 1), StandardCharsets.UTF_8.name());
+            CredentialsProvider provider = new BasicCredentialsProvider();
+            provider.setCredentials(new AuthScope(url.getHost(), url.getPort()),
+                    new UsernamePasswordCredentials(user, password));
+            return provider;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager() {
+        HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory = (route, config) -> {
+            CONNECTIONS_OPENED.incrementAndGet();
+            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+        };
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(connectionFactory);
+        manager.setMaxTotal(MAX_CONNECTIONS);
+        manager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+        manager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(READ_TIMEOUT_MILLIS)
+                .setSoKeepAlive(true)
+                .setTcpNoDelay(true)
+                .build());
+        return manager;
+    }
+
+    /**
+     * An {@link HttpClient} of one session on the shared pool. {@link ApacheHttpClient#close()}, called when the session
+     * quits, closes every idle connection of the pool, including those of other sessions, so it is not passed on.
+     */
+    private static final class SharedClient implements HttpClient {
+
+        private final HttpClient client;
+
+        private SharedClient(HttpClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public org.openqa.selenium.remote.http.HttpResponse execute(HttpRequest request, boolean followRedirects)
+                throws IOException {
+            return client.execute(request, followRedirects);
+        }
+
+        @Override
+        public void close() {
+            //the pool's connections are closed by shutdown()
+        }
+    }
+
+    /**
+     * Keeps idle connections for as long as the server allows, at most {@link #KEEP_ALIVE_MILLIS}.
+     */
+    private static final class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private static final KeepAliveStrategy INSTANCE = new KeepAliveStrategy();
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long serverMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverMillis > 0 ? Math.min(serverMillis, KEEP_ALIVE_MILLIS) : KEEP_ALIVE_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package framework;
+
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JavaScript run in the page by {@link AbstractDriver}, loaded once from the scripts resource directory.
+ */
+final class InjectedScripts {
+
+    static final String WAIT_FOR_VISIBLE = "wait-for-visible.js";
+    static final String QUERY_ELEMENTS = "query-elements.js";
+    static final String WAIT_FOR_PAGE_READY = "wait-for-page-ready.js";
+
+    private static final ConcurrentMap<String, String> SCRIPTS = new ConcurrentHashMap<>();
+
+    private InjectedScripts() {}
+
+    /**
+     * Returns the source of a script.
+     *
+     * @param name File name of the script.
+     * @return String script source.
+     */
+    static String get(String name) {
+        return SCRIPTS.computeIfAbsent(name, InjectedScripts::load);
+    }
+
+    private static String load(String name) {
+        String resourceName = "/scripts/" + name;
+        InputStream is = InjectedScripts.class.getResourceAsStream(resourceName);
+        if (is == null) {
+            throw new IllegalStateException("Missing script resource " + resourceName);
+        }
+        try (Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+            return CharStreams.toString(reader);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
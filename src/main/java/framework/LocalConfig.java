@@ -13,7 +13,7 @@ import java.util.Properties;
 
 class LocalConfig {
 
-    private static final Logger LOGGER = LoggerService.getLogger();
+    private static final Logger LOGGER = LoggerService.getLogger(LocalConfig.class);
     private static final Properties LOCAL_CONFIG;
 
     static {
@@ -27,80 +27,16 @@ class LocalConfig {
     }
 
     /**
-     * Returns the name of a web browser from {@link ConfigFile#FILEPATH}.
+     * Returns a value from {@link ConfigFile#FILEPATH}, or null if it is missing or empty. Read once into
+     * {@link RunConfig}, which should be used instead.
      *
-     * @return String name of a browser.
+     * @param propertyKey Key of the value, see {@link Keys}.
+     * @return String value or null.
      */
-    static String getBrowser() {
-        return getNonNullOrEmptyProperty(Keys.LOCAL_BROWSER);
+    static String getProperty(String propertyKey) {
+        return Strings.emptyToNull(LOCAL_CONFIG.getProperty(propertyKey));
     }
 
-    /**
-     * Returns the name of a Saucelabs browser from {@link ConfigFile#FILEPATH}.
-     *
-     * @return String name of a browser.
-     */
-    static String getSauceBrowser() {
-        return getNonNullOrEmptyProperty(Keys.SAUCE_BROWSER);
-    }
-
-    /**
-     * Returns the Saucelabs browser version from {@link ConfigFile#FILEPATH}.
-     *
-     * @return String Saucelabs browser version.
-     */
-    static String getSauceVersion() {
-        return getNonNullOrEmptyProperty(Keys.SAUCE_BROWSER_VERSION);
-    }
-
-    /**
-     * Returns the Saucelabs browser platform from {@link ConfigFile#FILEPATH}.
-     *
-     * @return String Saucelabs browser platform.
-     */
-    static String getSaucePlatform() {
-        return getNonNullOrEmptyProperty(Keys.SAUCE_BROWSER_PLATFORM);
-    }
-
-    /**
-     * Returns the Saucelabs API key (access token) from {@link ConfigFile#FILEPATH}.
-     *
-     * @return String Saucelabs API key.
-     */
-    static String getSauceApiKey() {
-        return getNonNullOrEmptyProperty(Keys.SAUCE_API_KEY);
-    }
-
-    /**
-     * Returns the Saucelabs username from {@link ConfigFile#FILEPATH}.
-     *
-     * @return String username.
-     */
-    static String getSauceUsername() {
-        return getNonNullOrEmptyProperty(Keys.SAUCE_USERNAME);
-    }
-
-    /**
-     * Run tests in Saucelabs? Applies to {@link DriverFactory.DriverMode#LOCAL},
-     * from {@link ConfigFile#FILEPATH}.
-     *
-     * @return Boolean true or false.
-     */
-    static boolean runInSauce() {
-        String asStr = getNonNullOrEmptyProperty(Keys.RUN_IN_SAUCE);
-        return Boolean.parseBoolean(asStr);
-    }
-
-    private static String getNonNullOrEmptyProperty(String propertyKey) {
-        String value = LOCAL_CONFIG.getProperty(propertyKey);
-        if (Strings.isNullOrEmpty(value)) {
-            throw new NullPointerException(Messaging.nullLocalConfigValue(propertyKey));
-        } else {
-            return value;
-        }
-    }
-
-
     private static class ConfigFile {
         private static final String DIRECTORY = "src/test/resources/";
         private static final String NAME = "localconfig.properties";
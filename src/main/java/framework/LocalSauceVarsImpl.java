@@ -1,7 +1,5 @@
 package framework;
 
-import java.util.Objects;
-
 /**
  * See javadocs for {@link ISauceVars}.
  */
@@ -9,31 +7,26 @@ public class LocalSauceVarsImpl implements ISauceVars {
 
     @Override
     public String getApiKey() {
-        return Objects.requireNonNull(LocalConfig.getSauceApiKey(),
-                Messaging.nullLocalConfigValue(LocalConfig.Keys.SAUCE_API_KEY));
+        return RunConfig.get().getLocalSauceApiKey();
     }
 
     @Override
     public String getUsername() {
-        return Objects.requireNonNull(LocalConfig.getSauceUsername(),
-                Messaging.nullLocalConfigValue(LocalConfig.Keys.SAUCE_USERNAME));
+        return RunConfig.get().getLocalSauceUsername();
     }
 
     @Override
     public String getBrowser() {
-        return Objects.requireNonNull(LocalConfig.getSauceBrowser(),
-                Messaging.nullLocalConfigValue(LocalConfig.Keys.SAUCE_BROWSER));
+        return RunConfig.get().getLocalSauceBrowser();
     }
 
     @Override
     public String getVersion() {
-        return Objects.requireNonNull(LocalConfig.getSauceVersion(),
-                Messaging.nullLocalConfigValue(LocalConfig.Keys.SAUCE_BROWSER_VERSION));
+        return RunConfig.get().getLocalSauceVersion();
     }
 
     @Override
     public String getPlatform() {
-        return Objects.requireNonNull(LocalConfig.getSaucePlatform(),
-                Messaging.nullLocalConfigValue(LocalConfig.Keys.SAUCE_BROWSER_PLATFORM));
+        return RunConfig.get().getLocalSaucePlatform();
     }
 }
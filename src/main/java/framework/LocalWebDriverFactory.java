@@ -1,25 +1,29 @@
 package framework;
 
+import com.google.common.io.ByteStreams;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.service.DriverService;
 
 import java.io.File;
-import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 class LocalWebDriverFactory {
 
-    private static final Logger LOGGER = LoggerService.getLogger();
+    private static final Logger LOGGER = LoggerService.getLogger(LocalWebDriverFactory.class);
     private static final String CHROME_DRIVER_RESOURCE = "/chromedriver78.exe";
-    private static final String CHROME_DRIVER_PROP = "webdriver.chrome.driver";
-    private static final String CHROME_ARGS_PROP = "webdriver.chrome.args";
-    private static final String CHROME_SILENT_OUTPUT = "webdriver.chrome.silentOutput";
     private static final String GECKO_DRIVER_RESOURCE = "/geckodriver26.exe";
-    private static final String GECKO_DRIVER_PROP = "webdriver.gecko.driver";
-    private static final String TEMP_PREFIX = "temp-driver";
-    private static final String TEMP_SUFFIX = ".exe.";
-    private static HashMap<String, File> resourceNamesToFiles = new HashMap<>();
+    private static final int CHROME_SESSIONS_PER_SERVICE =
+            EnvVars.getInt(Constants.ENV_CHROMEDRIVER_SESSIONS_PER_SERVICE, 8);
+    private static final int GECKO_SESSIONS_PER_SERVICE = 1; //geckodriver only supports one session at a time
+    private static final ConcurrentMap<String, CompletableFuture<File>> resourceNamesToFiles = new ConcurrentHashMap<>();
 
     /**
      * Returns a {@link WebDriver} object for a web browser.
@@ -39,51 +43,82 @@ class LocalWebDriverFactory {
     }
 
     /**
-     * Returns a {@link ChromeDriver}, {@link #CHROME_DRIVER_RESOURCE} is the path to the driver executable resource.
+     * Returns a Chrome {@link WebDriver} hosted by a shared chromedriver service, {@link #CHROME_DRIVER_RESOURCE} is the
+     * path to the driver executable resource.
      *
-     * @return A new {@link ChromeDriver} object.
+     * @return A new Chrome {@link WebDriver} object.
      */
     private static WebDriver createChromeDriver() {
-        File temp = getDriverFile(CHROME_DRIVER_RESOURCE);
-        System.setProperty(CHROME_DRIVER_PROP, temp.getAbsolutePath());
-        /*
-        Do not display logging output
-         */
-        System.setProperty(CHROME_ARGS_PROP, "--disable-logging");
-        System.setProperty(CHROME_SILENT_OUTPUT, "true");
-        return new ChromeDriver();
+        return DriverServiceManager.createWebDriver(Constants.CHROME_BROWSER, LocalWebDriverFactory::createChromeDriverService,
+                CHROME_SESSIONS_PER_SERVICE, new ChromeOptions().addArguments("--disable-logging"));
     }
 
     /**
-     * Returns a {@link FirefoxDriver}, {@link #GECKO_DRIVER_RESOURCE} is the path to the driver executable resource.
+     * Returns a Firefox {@link WebDriver} hosted by a shared geckodriver service, {@link #GECKO_DRIVER_RESOURCE} is the
+     * path to the driver executable resource.
      *
-     * @return A new {@link FirefoxDriver} object.
+     * @return A new Firefox {@link WebDriver} object.
      */
     private static WebDriver createFirefoxDriver() {
-        File file = getDriverFile(GECKO_DRIVER_RESOURCE);
-        System.setProperty(GECKO_DRIVER_PROP, file.getAbsolutePath());
-        /*
-        Do not display logging output
-         */
-        System.setProperty(FirefoxDriver.SystemProperty.DRIVER_USE_MARIONETTE, "true");
-        System.setProperty(FirefoxDriver.SystemProperty.BROWSER_LOGFILE, "/dev/null");
-        return new FirefoxDriver();
+        return DriverServiceManager.createWebDriver(Constants.FIREFOX_BROWSER, LocalWebDriverFactory::createGeckoDriverService,
+                GECKO_SESSIONS_PER_SERVICE, new FirefoxOptions());
     }
 
     /**
-     * Returns a {@link File} for the named web driver executable.
+     * Returns a new, unstarted {@link ChromeDriverService} that does not display logging output. Chrome itself is
+     * started with --disable-logging, see {@link #createChromeDriver()}.
+     *
+     * @return {@link ChromeDriverService} object.
+     */
+    private static DriverService createChromeDriverService() {
+        return new ChromeDriverService.Builder()
+                .usingDriverExecutable(getDriverFile(CHROME_DRIVER_RESOURCE))
+                .usingAnyFreePort()
+                .withSilent(true)
+                .build();
+    }
+
+    /**
+     * Returns a new, unstarted {@link GeckoDriverService} that does not display logging output.
+     *
+     * @return {@link GeckoDriverService} object.
+     */
+    @SuppressWarnings("deprecation") //sendOutputTo is what the builder itself uses to discard the output
+    private static DriverService createGeckoDriverService() {
+        GeckoDriverService service = new GeckoDriverService.Builder()
+                .usingDriverExecutable(getDriverFile(GECKO_DRIVER_RESOURCE))
+                .usingAnyFreePort()
+                .build();
+        service.sendOutputTo(ByteStreams.nullOutputStream());
+        return service;
+    }
+
+    /**
+     * Returns a {@link File} for the named web driver executable. Once resolved, lookups are lock-free. Each resource is
+     * extracted at most once per JVM, and different resources are extracted in parallel.
      *
      * @param resourceName String name of a driver exe in the resources folder of this project.
      * @return The driver exe as a {@link File}.
      */
-    private static synchronized File getDriverFile(String resourceName) {
-        if (resourceNamesToFiles.containsKey(resourceName)) {
-            LOGGER.trace("Loaded cached " + resourceName + " resource file");
-            return resourceNamesToFiles.get(resourceName);
-        } else{
-            File file = FileService.getResourceAsTempFile(resourceName, TEMP_PREFIX, TEMP_SUFFIX);
-            resourceNamesToFiles.put(resourceName, file);
-            return file;
+    static File getDriverFile(String resourceName) {
+        CompletableFuture<File> future = resourceNamesToFiles.get(resourceName);
+        if (future == null) {
+            CompletableFuture<File> created = new CompletableFuture<>();
+            future = resourceNamesToFiles.putIfAbsent(resourceName, created);
+            if (future == null) {
+                future = created;
+                try {
+                    created.complete(FileService.getCachedResourceFile(resourceName));
+                } catch (RuntimeException e) {
+                    resourceNamesToFiles.remove(resourceName, created); //allow a later call to retry
+                    created.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
         }
     }
 }
@@ -0,0 +1,34 @@
+package framework;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.lookup.AbstractLookup;
+import org.apache.logging.log4j.core.lookup.StrLookup;
+
+import static framework.Constants.ENV_LOG_LEVEL;
+import static framework.Constants.ENV_SCENARIO_LOG_BUFFER_SIZE;
+
+/**
+ * Log4j lookup giving log4j2.xml the framework's logging settings as ${framework:NAME}, where NAME is one of
+ * {@link Constants#ENV_LOG_LEVEL} and {@link Constants#ENV_SCENARIO_LOG_BUFFER_SIZE}. Values are read with
+ * {@link EnvVars} and default like the rest of the framework's settings. It is called while Log4j is being configured,
+ * so it must not log.
+ */
+@Plugin(name = "framework", category = StrLookup.CATEGORY)
+public final class LogConfigLookup extends AbstractLookup {
+
+    private static final String DEFAULT_LOG_LEVEL = "TRACE";
+    private static final int DEFAULT_SCENARIO_LOG_BUFFER_SIZE = 2000;
+
+    @Override
+    public String lookup(LogEvent event, String key) {
+        switch (key) {
+            case ENV_LOG_LEVEL:
+                return EnvVars.getString(ENV_LOG_LEVEL, DEFAULT_LOG_LEVEL);
+            case ENV_SCENARIO_LOG_BUFFER_SIZE:
+                return String.valueOf(EnvVars.getInt(ENV_SCENARIO_LOG_BUFFER_SIZE, DEFAULT_SCENARIO_LOG_BUFFER_SIZE));
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package framework;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+
+/**
+ * What a thread logging through the Async appender of log4j2.xml does when the appender's queue is full, set in
+ * log4j2.component.properties. Log4j's default makes the thread wait for room in the queue, so under sustained logging
+ * every thread is held to the pace of the single appender thread. With this policy the thread writes its event
+ * itself, as a synchronous appender would, so sustained logging is no slower than without the Async appender. Such
+ * events can reach the console ahead of events still queued.
+ */
+public final class LogQueueFullPolicy implements AsyncQueueFullPolicy {
+
+    @Override
+    public EventRoute getRoute(long backgroundThreadId, Level level) {
+        return EventRoute.SYNCHRONOUS;
+    }
+}
@@ -8,12 +8,13 @@ import org.apache.logging.log4j.Logger;
     private LoggerService(){}
 
     /**
-     * Returns a {@link Logger} object with the name of the calling class set automatically.
+     * Returns a {@link Logger} object with the name of a class. The class is passed explicitly, so the caller does not
+     * need to be found by walking the stack.
      *
+     * @param clazz {@link Class} the Logger is for.
      * @return {@link Logger} object.
      */
-    static org.apache.logging.log4j.Logger getLogger() {
-        StackTraceElement callingClass = Thread.currentThread().getStackTrace()[2]; // third stack trace element is name of calling class
-        return LogManager.getLogger(callingClass.getClassName());
+    static Logger getLogger(Class<?> clazz) {
+        return LogManager.getLogger(clazz);
     }
 }
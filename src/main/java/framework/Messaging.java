@@ -22,7 +22,7 @@ class Messaging {
         return "Local config value is null: " + propertiesKey;
     }
 
-    static String notInitialized(Class clazz) {
+    static String notInitialized(Class<?> clazz) {
         return clazz.getName() + " not initialized.";
     }
 
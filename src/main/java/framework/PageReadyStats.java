@@ -0,0 +1,83 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to ready of each navigation waited on by {@link AbstractDriver#waitForPageReady(long)}, aggregated per page.
+ * Pages are keyed by origin and path, so query strings and fragments do not create separate entries.
+ */
+final class PageReadyStats {
+
+    private static final Logger LOGGER = LoggerService.getLogger(PageReadyStats.class);
+    private static final int SLOWEST_PAGES_LOGGED = 10;
+    private static final ConcurrentMap<String, Page> PAGES = new ConcurrentHashMap<>();
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log page ready summary", PageReadyStats::logSummary);
+    }
+
+    private PageReadyStats() {}
+
+    /**
+     * Records how long a page took to become ready.
+     *
+     * @param url         URL of the page.
+     * @param readyMillis Milliseconds from the start of the navigation, or of the wait if unknown, until ready.
+     */
+    static void record(String url, long readyMillis) {
+        PAGES.computeIfAbsent(pageKey(url), k -> new Page()).record(readyMillis);
+        LOGGER.trace("Page ready in " + readyMillis + " ms: " + url);
+    }
+
+    /**
+     * Logs the pages with the highest average time to ready.
+     */
+    static void logSummary() {
+        if (PAGES.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Slowest pages to ready, avg/max ms over navigations:");
+        PAGES.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> -e.getValue().averageMillis()))
+                .limit(SLOWEST_PAGES_LOGGED)
+                .forEach(e -> LOGGER.info(Messaging.arrow(e.getKey(), e.getValue().toString())));
+    }
+
+    private static String pageKey(String url) {
+        try {
+            URI uri = new URI(url);
+            return uri.getScheme() == null ? url : uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+        } catch (URISyntaxException e) {
+            return url;
+        }
+    }
+
+    private static final class Page {
+
+        private final AtomicLong navigations = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private void record(long millis) {
+            navigations.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        private long averageMillis() {
+            return totalMillis.get() / Math.max(1, navigations.get());
+        }
+
+        @Override
+        public String toString() {
+            return averageMillis() + "/" + maxMillis.get() + " over " + navigations.get();
+        }
+    }
+}
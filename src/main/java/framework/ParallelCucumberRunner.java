@@ -1,15 +1,17 @@
-
 package framework;
 
 import io.cucumber.junit.Cucumber;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
 import org.junit.runner.RunWith;
+import org.testng.ITestContext;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 
 @RunWith(Cucumber.class)
 @CucumberOptions(
-        features = "src/test/resources/features/",
+        features = Constants.FEATURES_DIRECTORY,
         plugin = {"html:target/suite-output/report/site/",
                 "json:target/suite-output/report/cucumber.json", "pretty"},
         glue = {"steps", "steps.framework"})
@@ -17,10 +19,38 @@ import org.testng.annotations.DataProvider;
 
 public final class ParallelCucumberRunner extends AbstractTestNGCucumberTests {
 
+    private String browser;
+    private RunConfig.BrowserConfig browserConfig;
+
+    /**
+     * Captures the browser of the {@link org.testng.xml.XmlTest} this runner instance executes scenarios for.
+     *
+     * @param testContext {@link ITestContext} of the running test.
+     */
+    @BeforeClass(alwaysRun = true)
+    public final void setBrowser(ITestContext testContext) {
+        browser = testContext.getCurrentXmlTest().getParameter(ParallelSuite.BROWSER_PARAM);
+        browserConfig = RunConfig.get().getBrowserConfig(browser);
+    }
+
+    /**
+     * Binds the browser's {@link RunConfig.BrowserConfig} to the thread about to run a scenario, so creating its
+     * session needs no further lookups.
+     */
+    @BeforeMethod(alwaysRun = true)
+    public final void bindBrowserConfig() {
+        RunConfig.bindCurrentTest(browserConfig);
+    }
 
+    /**
+     * Returns the scenarios of this shard (see {@link SuiteSharding}), longest expected duration first according to
+     * {@link ScenarioHistory}.
+     *
+     * @return Data provider rows of scenarios.
+     */
     @Override
     @DataProvider(parallel = true)
     public final Object[][] scenarios() {
-        return super.scenarios();
+        return ScenarioHistory.longestFirst(SuiteSharding.select(super.scenarios(), browser), browser);
     }
-}
\ No newline at end of file
+}
@@ -1,34 +1,39 @@
 package framework;
 
-import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.Status;
-import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
 import gherkin.events.PickleEvent;
 import io.cucumber.testng.CucumberFeatureWrapper;
 import io.cucumber.testng.PickleEventWrapper;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.TestListenerAdapter;
 import org.testng.TestNG;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class ParallelReportingListener extends TestListenerAdapter {
+/**
+ * Reports scenario results to an Extent report. Results are published as {@link ReportEvent}s and streamed to a file
+ * by the {@link ReportWriter} thread, so TestNG threads do no report bookkeeping. The HTML report is rendered from the
+ * file once, when the suite finishes.
+ */
+public class ParallelReportingListener extends TestListenerAdapter implements ISuiteListener {
 
-    private static ExtentReports report = new ExtentReports();
-    private static ThreadLocal<ExtentTest> extentTestTL = new ThreadLocal<>();
+    private static final Path HTML_FILE = Paths.get("target/parallel-suite-results.html");
+
+    private static final String TEST_ID_ATTRIBUTE = "extentTestId";
+    private static final AtomicLong TEST_IDS = new AtomicLong();
 
     /**
-     * Executes when a {@link TestNG} execution starts. Initializes the {@link ExtentReports} extent report.
+     * Executes when a {@link TestNG} execution starts. Names the extent report.
      *
      * @param testContext {@link ITestContext} from overridden method of {@link TestListenerAdapter}.
      */
     @Override
     public void onStart(ITestContext testContext) {
-        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter("target/parallel-suite-results.html");
-        htmlReporter.config().setDocumentTitle(ParallelSuite.getName());
-        htmlReporter.config().setReportName(ParallelSuite.getName());
-        report.attachReporter(htmlReporter);
+        ReportWriter.publish(ReportEvent.suiteStarted(ParallelSuite.getName()));
     }
 
     /**
@@ -40,22 +45,26 @@ public class ParallelReportingListener extends TestListenerAdapter {
     public void onTestStart(ITestResult testResult) {
         String scenarioName = getScenarioName(testResult);
         String featureName = getFeatureName(testResult);
-
-        extentTestTL.set(report.createTest(scenarioName + " on " +
-                testResult.getTestContext().getCurrentXmlTest().getParameter(ParallelSuite.BROWSER_PARAM), featureName));
-
-        extentTestTL.get().assignCategory(testResult.getTestContext().getCurrentXmlTest()
-                .getParameter(ParallelSuite.BROWSER_PARAM));
+        String browser = testResult.getTestContext().getCurrentXmlTest().getParameter(ParallelSuite.BROWSER_PARAM);
+        long testId = TEST_IDS.incrementAndGet();
+        testResult.setAttribute(TEST_ID_ATTRIBUTE, testId);
+        ReportWriter.publish(ReportEvent.testStarted(testId, scenarioName + " on " + browser, featureName, browser));
     }
 
     /**
-     * Executes when a {@link TestNG} test fails.
+     * Executes when a {@link TestNG} test fails. Attaches the scenario's last log lines kept by
+     * {@link ScenarioLogBuffer}, if any.
      *
      * @param testResult {@link ITestResult} from overridden method of {@link TestListenerAdapter}.
      */
     @Override
     public void onTestFailure(ITestResult testResult) {
-        extentTestTL.get().log(Status.FAIL, testResult.getThrowable());
+        long testId = getTestId(testResult);
+        String log = ScenarioLogBuffer.takeFailedLog();
+        if (log != null && testId != 0) {
+            ReportWriter.publish(ReportEvent.testLog(testId, log));
+        }
+        ReportWriter.publish(ReportEvent.testFailed(testId, testResult.getThrowable()));
     }
 
     /**
@@ -65,7 +74,7 @@ public class ParallelReportingListener extends TestListenerAdapter {
      */
     @Override
     public void onTestSkipped(ITestResult testResult) {
-        extentTestTL.get().log(Status.SKIP, testResult.getThrowable());
+        ReportWriter.publish(ReportEvent.testSkipped(getTestId(testResult), testResult.getThrowable()));
     }
 
     /**
@@ -75,17 +84,48 @@ public class ParallelReportingListener extends TestListenerAdapter {
      */
     @Override
     public void onTestSuccess(ITestResult testResult) {
-        extentTestTL.get().log(Status.PASS, "Test passed");
+        ReportWriter.publish(ReportEvent.testPassed(getTestId(testResult)));
     }
 
     /**
-     * Executes when a {@link TestNG} execution finishes. Writes the {@link ExtentReports} extent report.
+     * Executes when a {@link TestNG} execution finishes. Waits for the {@link ReportWriter} to write every result to
+     * disk.
      *
      * @param testContext {@link ITestResult} from overridden method of {@link TestListenerAdapter}.
      */
     @Override
     public void onFinish(ITestContext testContext) {
-        report.flush();
+        ReportWriter.drain();
+    }
+
+    /**
+     * Executes when a {@link TestNG} suite starts.
+     *
+     * @param suite {@link ISuite} from overridden method of {@link ISuiteListener}.
+     */
+    @Override
+    public void onStart(ISuite suite) {
+    }
+
+    /**
+     * Executes when a {@link TestNG} suite finishes. Renders the extent report from the streamed results.
+     *
+     * @param suite {@link ISuite} from overridden method of {@link ISuiteListener}.
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        ReportWriter.drain();
+        ReportWriter.logMetrics();
+        ReportRenderer.render(ReportWriter.getFile(), HTML_FILE);
+    }
+
+    /**
+     * Returns the report id assigned to a test in {@link #onTestStart(ITestResult)}, or 0 if it never started, e.g.
+     * a test skipped because a configuration method failed.
+     */
+    private long getTestId(ITestResult testResult) {
+        Object testId = testResult.getAttribute(TEST_ID_ATTRIBUTE);
+        return testId instanceof Long ? (Long) testId : 0;
     }
 
     /**
@@ -1,10 +1,6 @@
 package framework;
 
 import java.text.MessageFormat;
-import java.util.Objects;
-
-import static framework.Constants.ENV_SAUCE_API_KEY;
-import static framework.Constants.ENV_SAUCE_USERNAME;
 
 /**
  * See javadocs for {@link ISauceVars}.
@@ -21,12 +17,12 @@ public class ParallelSauceVarsImpl implements ISauceVars {
 
     @Override
     public String getApiKey() {
-       return Objects.requireNonNull(System.getenv(ENV_SAUCE_API_KEY), Messaging.nullEnvVariable(ENV_SAUCE_API_KEY));
+        return RunConfig.get().getSauceApiKey();
     }
 
     @Override
     public String getUsername() {
-        return Objects.requireNonNull(System.getenv(ENV_SAUCE_USERNAME), Messaging.nullEnvVariable(ENV_SAUCE_USERNAME));
+        return RunConfig.get().getSauceUsername();
     }
 
     @Override
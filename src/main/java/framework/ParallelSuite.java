@@ -20,7 +20,6 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static framework.Constants.CHROME_BROWSER;
-import static framework.Constants.ENV_BROWSERS;
 import static framework.Constants.ENV_CHROME_PLATFORM;
 import static framework.Constants.ENV_CHROME_VERSION;
 import static framework.Constants.ENV_CUCUMBER_OPTIONS;
@@ -44,7 +43,7 @@ import static framework.Constants.SAFARI_BROWSER;
  final class ParallelSuite {
 
     private static final String NEW_LINE = System.lineSeparator();
-    private static final Logger LOGGER = LoggerService.getLogger();
+    private static final Logger LOGGER = LoggerService.getLogger(ParallelSuite.class);
     private static final String OUTPUT_DIR = "target\\suite-output\\";
     private static final String XML_DIR = OUTPUT_DIR + "xml\\";
     private static final String VERSION_PARAM = "VERSION";
@@ -78,12 +77,18 @@ import static framework.Constants.SAFARI_BROWSER;
      */
     private static void runSuite(String runnerClassName) {
         suiteRunning = true;
+        LOGGER.debug("Run configuration: " + RunConfig.get());
         List<String> browsers = getBrowsers();
         String options = getCucumberOptions();
         setName(browsers, options);
 
         List<XmlSuite> suites = createXmlSuites(browsers, runnerClassName);
+        SessionWarmer.start(getSessionKeys(browsers), suites.get(0).getDataProviderThreadCount());
+        if (useAdaptiveConcurrency()) {
+            AdaptiveConcurrency.start();
+        }
         run(suites);
+        SuiteLifecycle.end();
         suiteRunning = false;
     }
 
@@ -97,6 +102,7 @@ import static framework.Constants.SAFARI_BROWSER;
     private static List<XmlSuite> createXmlSuites(List<String> listOfBrowsers, String runnerClassName) {
         XmlSuite xmlSuite = new XmlSuite();
         xmlSuite.addListener(ParallelReportingListener.class.getName());
+        xmlSuite.addListener(ScenarioHistoryListener.class.getName());
         xmlSuite.setName(getName());
         setThreadCount(xmlSuite);
 
@@ -124,6 +130,19 @@ import static framework.Constants.SAFARI_BROWSER;
         return listOfSuites;
     }
 
+    /**
+     * Returns the {@link SessionKey} each browser's tests will request sessions with.
+     *
+     * @param listOfBrowsers List of browser name Strings.
+     * @return List of {@link SessionKey}, one per browser.
+     */
+    private static List<SessionKey> getSessionKeys(List<String> listOfBrowsers) {
+        DriverFactory.DriverMode driverMode = DriverFactory.getCurrentDriverMode();
+        return listOfBrowsers.stream()
+                .map(browser -> new SessionKey(browser, getBrowserVersion(browser), getBrowserPlatform(browser), driverMode))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Executes the tests within an {@link XmlSuite}.
      *
@@ -180,14 +199,7 @@ import static framework.Constants.SAFARI_BROWSER;
      */
     private static List<String> getBrowsers() {
         if (listOfBrowsers == null) {
-
-            String strBrowsers = Objects.requireNonNull(System.getenv(ENV_BROWSERS), Messaging.nullEnvVariable(ENV_BROWSERS));
-            String[] asArray = strBrowsers.split(",");
-            List<String> asList = Arrays.stream(asArray)
-                    .map(String::trim)
-                    .map(String::toUpperCase)
-                    .collect(Collectors.toList());
-
+            List<String> asList = RunConfig.get().getBrowsers();
             asList.forEach(Browsers::verifyBrowserValid);
             listOfBrowsers = asList;
         }
@@ -233,6 +245,10 @@ import static framework.Constants.SAFARI_BROWSER;
             } catch (NumberFormatException e) {
                 throw new RuntimeException("Error parsing " + System.getenv(ENV_THREAD_COUNT) + NEW_LINE + e);
             }
+        } else if (useAdaptiveConcurrency()) {
+            //sessions are gated by AdaptiveConcurrency, the thread count only needs to cover its ceiling
+            xmlSuite.setParallel(XmlSuite.ParallelMode.TESTS);
+            xmlSuite.setDataProviderThreadCount(AdaptiveConcurrency.getCeiling());
         } else {
             xmlSuite.setParallel(XmlSuite.ParallelMode.TESTS);
             xmlSuite.setDataProviderThreadCount(DEFAULT_THREAD_COUNT);
@@ -241,6 +257,17 @@ import static framework.Constants.SAFARI_BROWSER;
         LOGGER.info("Thread count: " + xmlSuite.getDataProviderThreadCount());
     }
 
+    /**
+     * Returns True if local sessions should be sized by {@link AdaptiveConcurrency}: a local parallel suite run without
+     * {@link Constants#ENV_THREAD_COUNT}.
+     *
+     * @return Boolean true or false.
+     */
+    private static boolean useAdaptiveConcurrency() {
+        return AdaptiveConcurrency.appliesTo(DriverFactory.getCurrentDriverMode(),
+                !Strings.isNullOrEmpty(System.getenv(ENV_THREAD_COUNT)));
+    }
+
     /**
      * Returns the version to use for the specified browser.
      *
@@ -248,60 +275,59 @@ import static framework.Constants.SAFARI_BROWSER;
      * @return The String version to use for the specified browser.
      */
     private static String getBrowserVersion(String browser) {
-        for (Browsers b : Browsers.values()) {
-            if (b.browserName.equalsIgnoreCase(browser)) {
-                if (!Strings.isNullOrEmpty(System.getenv(b.version))) {
-                    return System.getenv(b.version);
-                } else {
-                    return "latest";
-                }
-            }
-        }
-        throw new IllegalArgumentException("Invalid browser specified to get version for: " + browser);
+        return RunConfig.get().getBrowserConfig(browser).getVersion();
     }
 
     /**
-     * Returns the version to use for the specified browser.
+     * Returns the platform to use for the specified browser.
      *
      * @param browser A String name of a browser.
-     * @return The String version to use for the specified browser.
+     * @return The String platform to use for the specified browser.
      */
     private static String getBrowserPlatform(String browser) {
-        for (Browsers b : Browsers.values()) {
+        return RunConfig.get().getBrowserConfig(browser).getPlatform();
+    }
 
-            if (b.browserName.equalsIgnoreCase(browser)) {
-                Objects.requireNonNull(System.getenv(b.platform), Messaging.nullEnvVariable(b.platform));
-                return System.getenv(b.platform);
-            }
+    /**
+     * Returns the {@link RunConfig.BrowserConfig} of the currently running test: the one bound to the thread by
+     * {@link ParallelCucumberRunner}, else the one named by the test's {@link #BROWSER_PARAM} parameter.
+     *
+     * @return {@link RunConfig.BrowserConfig} of the currently running test.
+     */
+    static RunConfig.BrowserConfig getTestConfig() {
+        RunConfig.BrowserConfig config = RunConfig.currentTest();
+        if (config != null) {
+            return config;
         }
-        throw new IllegalArgumentException("Invalid browser specified to get platform for: " + browser);
+        String browser = Reporter.getCurrentTestResult().getTestContext().getCurrentXmlTest().getParameter(BROWSER_PARAM);
+        return RunConfig.get().getBrowserConfig(browser);
     }
 
     /**
-     * Returns the {@link #BROWSER_PARAM} parameter of the currently running test.
+     * Returns the browser of the currently running test.
      *
-     * @return The {@link #BROWSER_PARAM} parameter of the currently running test.
+     * @return The browser of the currently running test.
      */
     static String getTestBrowser() {
-        return Reporter.getCurrentTestResult().getTestContext().getCurrentXmlTest().getParameter(BROWSER_PARAM);
+        return getTestConfig().getBrowser();
     }
 
     /**
-     * Returns the {@link #VERSION_PARAM} parameter of the currently running test.
+     * Returns the browser version of the currently running test.
      *
-     * @return The {@link #VERSION_PARAM} parameter of the currently running test.
+     * @return The browser version of the currently running test.
      */
     static String getTestVersion() {
-        return Reporter.getCurrentTestResult().getTestContext().getCurrentXmlTest().getParameter(VERSION_PARAM);
+        return getTestConfig().getVersion();
     }
 
     /**
-     * Returns the {@link #PLATFORM_PARAM} parameter of the currently running test.
+     * Returns the browser platform of the currently running test.
      *
-     * @return The {@link #PLATFORM_PARAM} parameter of the currently running test.
+     * @return The browser platform of the currently running test.
      */
     static String getTestPlatform() {
-        return Reporter.getCurrentTestResult().getTestContext().getCurrentXmlTest().getParameter(PLATFORM_PARAM);
+        return getTestConfig().getPlatform();
     }
 
     /**
@@ -338,6 +364,29 @@ import static framework.Constants.SAFARI_BROWSER;
             this.platform = platform;
         }
 
+        String getVersionEnvName() {
+            return version;
+        }
+
+        String getPlatformEnvName() {
+            return platform;
+        }
+
+        /**
+         * Returns the {@link Browsers} of a browser name, or null if the browser is not valid.
+         *
+         * @param browser A browser name String.
+         * @return {@link Browsers} or null.
+         */
+        static Browsers find(String browser) {
+            for (Browsers b : Browsers.values()) {
+                if (b.browserName.equalsIgnoreCase(browser)) {
+                    return b;
+                }
+            }
+            return null;
+        }
+
         /**
          * Fails test if the specified browser is not valid.
          *
@@ -359,12 +408,7 @@ import static framework.Constants.SAFARI_BROWSER;
          * @return Boolean True or False.
          */
         private static boolean isValid(String browser) {
-            for (Browsers b : Browsers.values()) {
-                if (b.browserName.equalsIgnoreCase(browser)) {
-                    return true;
-                }
-            }
-            return false;
+            return find(browser) != null;
         }
     }
 }
@@ -0,0 +1,91 @@
+package framework;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static framework.Constants.ENV_WAIT_POLL_INITIAL_MILLIS;
+import static framework.Constants.ENV_WAIT_POLL_JITTER;
+import static framework.Constants.ENV_WAIT_POLL_MAX_MILLIS;
+import static framework.Constants.ENV_WAIT_POLL_MULTIPLIER;
+
+/**
+ * How often {@link AbstractDriver} waits re-check their condition. Polls start fast and back off exponentially up to
+ * a cap, optionally with random jitter so parallel waits do not poll in lockstep.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class PollingStrategy {
+
+    private static final PollingStrategy DEFAULT = new PollingStrategy(
+            EnvVars.getLong(ENV_WAIT_POLL_INITIAL_MILLIS, 50),
+            EnvVars.getDouble(ENV_WAIT_POLL_MULTIPLIER, 2.0),
+            EnvVars.getLong(ENV_WAIT_POLL_MAX_MILLIS, 1000),
+            EnvVars.getDouble(ENV_WAIT_POLL_JITTER, 0.0));
+
+    private final long initialMillis;
+    private final double multiplier;
+    private final long maxMillis;
+    private final double jitter;
+
+    private PollingStrategy(long initialMillis, double multiplier, long maxMillis, double jitter) {
+        if (initialMillis < 1 || multiplier < 1 || maxMillis < initialMillis || jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("Invalid polling strategy: initial " + initialMillis + " ms, multiplier "
+                    + multiplier + ", max " + maxMillis + " ms, jitter " + jitter);
+        }
+        this.initialMillis = initialMillis;
+        this.multiplier = multiplier;
+        this.maxMillis = maxMillis;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Returns the default strategy, configured by the WAIT_POLL_INITIAL_MILLIS (50), WAIT_POLL_MULTIPLIER (2.0),
+     * WAIT_POLL_MAX_MILLIS (1000) and WAIT_POLL_JITTER (0.0) environment variables.
+     *
+     * @return The default {@link PollingStrategy}.
+     */
+    public static PollingStrategy getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a strategy that polls at a fixed interval.
+     *
+     * @param intervalMillis Milliseconds between polls.
+     * @return A {@link PollingStrategy}.
+     */
+    public static PollingStrategy fixed(long intervalMillis) {
+        return new PollingStrategy(intervalMillis, 1, intervalMillis, 0);
+    }
+
+    /**
+     * Returns a strategy whose interval starts at initialMillis and is multiplied after every poll, up to maxMillis.
+     *
+     * @param initialMillis Milliseconds before the second poll.
+     * @param multiplier    Factor applied to the interval after each poll, at least 1.
+     * @param maxMillis     Largest interval in milliseconds.
+     * @param jitter        Fraction of each interval to randomize by, from 0 (none) up to but excluding 1.
+     * @return A {@link PollingStrategy}.
+     */
+    public static PollingStrategy backoff(long initialMillis, double multiplier, long maxMillis, double jitter) {
+        return new PollingStrategy(initialMillis, multiplier, maxMillis, jitter);
+    }
+
+    /**
+     * Returns the number of milliseconds to sleep after a poll.
+     *
+     * @param pollsSoFar Number of polls already made, at least 1.
+     * @return long interval in milliseconds.
+     */
+    long intervalMillis(int pollsSoFar) {
+        double interval = Math.min(maxMillis, initialMillis * Math.pow(multiplier, pollsSoFar - 1));
+        if (jitter > 0) {
+            interval *= 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        }
+        return Math.max(1, Math.round(interval));
+    }
+
+    @Override
+    public String toString() {
+        return "PollingStrategy[initial " + initialMillis + " ms, x" + multiplier + ", max " + maxMillis + " ms, jitter "
+                + jitter + "]";
+    }
+}
@@ -0,0 +1,443 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static framework.Constants.ENV_REMOTE_ENDPOINTS;
+
+/**
+ * Routes remote sessions across several WebDriver hubs: Saucelabs, plus any endpoints listed in
+ * {@link Constants#ENV_REMOTE_ENDPOINTS}, separated by ';', each as name|url|capacity|filters. Filters are optional,
+ * comma separated capability=value pairs, and a capability listed more than once matches any of its values, e.g.
+ * <pre>grid|http://localhost:4444/wd/hub|8|browserName=chrome,browserName=firefox</pre>
+ * <p>
+ * A session goes to the healthy endpoint with free capacity and the lowest utilization whose filters match its
+ * capabilities, preferring endpoints without recent failures. The Saucelabs endpoint only has capacity while the
+ * account does, see {@link SauceConcurrency}. If no endpoint has capacity, the session waits. If creating the session
+ * fails, it is retried on the next endpoint. An endpoint that fails {@link #FAILURES_BEFORE_UNHEALTHY} times in a row
+ * is skipped for {@link #UNHEALTHY_MILLIS}, unless no other endpoint matches.
+ */
+final class RemoteEndpointRegistry {
+
+    private static final Logger LOGGER = LoggerService.getLogger(RemoteEndpointRegistry.class);
+    private static final String SAUCE_ENDPOINT = "saucelabs";
+    private static final int FAILURES_BEFORE_UNHEALTHY = 2;
+    private static final long UNHEALTHY_MILLIS = 60000;
+    private static final long RECHECK_MILLIS = 500;
+    private static final ReentrantLock LOCK = new ReentrantLock(true);
+    private static final Condition ENDPOINT_FREED = LOCK.newCondition();
+    private static final List<Endpoint> ENDPOINTS = new ArrayList<>(parse(EnvVars.getString(ENV_REMOTE_ENDPOINTS, "")));
+    private static final AtomicLong SESSIONS = new AtomicLong();
+    private static final AtomicLong WAITED = new AtomicLong();
+    private static final AtomicLong TOTAL_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong FAILOVERS = new AtomicLong();
+    private static ISauceVars sauceVars;
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log remote endpoint metrics",
+                RemoteEndpointRegistry::logMetrics);
+    }
+
+    private RemoteEndpointRegistry() {}
+
+    /**
+     * Creates a session on the least loaded endpoint that accepts the capabilities, failing over to the next one if
+     * session creation fails. The endpoint's slot is freed when the session is quit.
+     *
+     * @param sauceVars    {@link ISauceVars} with the credentials of the Saucelabs endpoint.
+     * @param capabilities {@link Capabilities} of the session.
+     * @return {@link RemoteWebDriver} object.
+     */
+    static RemoteWebDriver createSession(ISauceVars sauceVars, Capabilities capabilities) {
+        registerSauceEndpoint(sauceVars);
+        return createSession(capabilities);
+    }
+
+    /**
+     * Creates a session on the least loaded registered endpoint that accepts the capabilities, without adding the
+     * Saucelabs endpoint.
+     *
+     * @param capabilities {@link Capabilities} of the session.
+     * @return {@link RemoteWebDriver} object.
+     */
+    static RemoteWebDriver createSession(Capabilities capabilities) {
+        Set<Endpoint> failed = new HashSet<>();
+        WebDriverException lastError = null;
+        while (true) {
+            Endpoint endpoint = acquire(capabilities, failed);
+            if (endpoint == null) {
+                throw lastError;
+            }
+            long start = System.nanoTime();
+            try {
+                RemoteWebDriver webDriver = new EndpointWebDriver(endpoint, capabilities);
+                endpoint.recordSuccess(System.nanoTime() - start);
+                SESSIONS.incrementAndGet();
+                return webDriver;
+            } catch (WebDriverException e) {
+                release(endpoint);
+                endpoint.recordFailure();
+                failed.add(endpoint);
+                lastError = e;
+                LOGGER.warn("Could not create a session on remote endpoint " + endpoint.name + ": "
+                        + e.getMessage().split(System.lineSeparator())[0]);
+                FAILOVERS.incrementAndGet();
+            } catch (RuntimeException e) {
+                release(endpoint);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns True if a {@link WebDriver} runs on the Saucelabs endpoint.
+     *
+     * @param webDriver {@link WebDriver} created by {@link #createSession(ISauceVars, Capabilities)}.
+     * @return Boolean true or false.
+     */
+    static boolean isSauce(WebDriver webDriver) {
+        return webDriver instanceof EndpointWebDriver && ((EndpointWebDriver) webDriver).endpoint.sauce;
+    }
+
+    /**
+     * Logs session creation latency, utilization and health of each endpoint, and how long sessions waited for one.
+     */
+    static void logMetrics() {
+        if (SESSIONS.get() + FAILOVERS.get() == 0) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            long sessions = Math.max(SESSIONS.get(), 1);
+            LOGGER.info("Remote endpoint sessions: " + SESSIONS.get() + ", failovers: " + FAILOVERS.get()
+                    + ", waited for a remote slot: " + WAITED.get() + ", avg/max wait ms: "
+                    + TimeUnit.NANOSECONDS.toMillis(TOTAL_WAIT_NANOS.get() / sessions) + "/"
+                    + TimeUnit.NANOSECONDS.toMillis(MAX_WAIT_NANOS.get()));
+            ENDPOINTS.forEach(Endpoint::logMetrics);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Adds the Saucelabs endpoint the first time a session is created, unless {@link Constants#ENV_REMOTE_ENDPOINTS}
+     * already lists an endpoint named "saucelabs". The hub is reached over https on port 443. The account's
+     * concurrency is first read by {@link SauceConcurrency} before taking {@link #LOCK}, so sessions waiting for other
+     * endpoints are not held up by the REST calls.
+     */
+    private static void registerSauceEndpoint(ISauceVars vars) {
+        SauceConcurrency.start(vars);
+        LOCK.lock();
+        try {
+            if (sauceVars != null) {
+                return;
+            }
+            sauceVars = vars;
+            for (Endpoint endpoint : ENDPOINTS) {
+                if (endpoint.sauce) {
+                    return;
+                }
+            }
+            URL url = toUrl("https://" + vars.getUsername() + ":" + vars.getApiKey()
+                    + "@ondemand.saucelabs.com:443/wd/hub");
+            ENDPOINTS.add(0, new Endpoint(SAUCE_ENDPOINT, url, Integer.MAX_VALUE, Collections.emptyMap()));
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Blocks until an endpoint not in the failed set has a slot for the capabilities, then takes it. Returns null if
+     * no such endpoint accepts the capabilities at all.
+     */
+    private static Endpoint acquire(Capabilities capabilities, Set<Endpoint> failed) {
+        long start = System.nanoTime();
+        LOCK.lock();
+        try {
+            while (true) {
+                List<Endpoint> matching = new ArrayList<>();
+                for (Endpoint endpoint : ENDPOINTS) {
+                    if (!failed.contains(endpoint) && endpoint.accepts(capabilities)) {
+                        matching.add(endpoint);
+                    }
+                }
+                if (matching.isEmpty()) {
+                    if (failed.isEmpty()) {
+                        throw new WebDriverException("No remote endpoint accepts " + capabilities);
+                    }
+                    return null;
+                }
+                long now = System.currentTimeMillis();
+                boolean anyHealthy = matching.stream().anyMatch(endpoint -> endpoint.isHealthy(now));
+                matching.sort(Comparator.comparingInt((Endpoint endpoint) -> endpoint.consecutiveFailures)
+                        .thenComparingDouble(Endpoint::utilization));
+                for (Endpoint endpoint : matching) {
+                    if ((endpoint.isHealthy(now) || !anyHealthy) && endpoint.tryAcquire()) {
+                        recordWait(System.nanoTime() - start);
+                        return endpoint;
+                    }
+                }
+                ENDPOINT_FREED.await(RECHECK_MILLIS, TimeUnit.MILLISECONDS); //re-checks Saucelabs account capacity
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting for a remote endpoint", e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void release(Endpoint endpoint) {
+        LOCK.lock();
+        try {
+            endpoint.release();
+            ENDPOINT_FREED.signal();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Replaces the endpoints sessions are routed to, for example with endpoints read by {@link #parse(String)}.
+     *
+     * @param endpoints List of {@link Endpoint} objects, in order of preference when equally loaded.
+     */
+    static void setEndpoints(List<Endpoint> endpoints) {
+        LOCK.lock();
+        try {
+            ENDPOINTS.clear();
+            ENDPOINTS.addAll(endpoints);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void recordWait(long nanos) {
+        if (nanos > TimeUnit.MILLISECONDS.toNanos(1)) {
+            WAITED.incrementAndGet();
+        }
+        TOTAL_WAIT_NANOS.addAndGet(nanos);
+        MAX_WAIT_NANOS.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Parses endpoints in the format of {@link Constants#ENV_REMOTE_ENDPOINTS}.
+     *
+     * @param endpoints String of endpoints separated by ';'.
+     * @return List of {@link Endpoint} objects, in order.
+     */
+    static List<Endpoint> parse(String endpoints) {
+        List<Endpoint> parsed = new ArrayList<>();
+        for (String spec : endpoints.split(";")) {
+            if (spec.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = spec.trim().split("\\|");
+            if (parts.length < 3) {
+                throw new RuntimeException("Invalid " + ENV_REMOTE_ENDPOINTS + " entry, expected "
+                        + "name|url|capacity|filters: " + spec);
+            }
+            Map<String, Set<String>> filters = new HashMap<>();
+            if (parts.length > 3) {
+                for (String filter : parts[3].split(",")) {
+                    String[] pair = filter.split("=", 2);
+                    if (pair.length == 2) {
+                        filters.computeIfAbsent(pair[0].trim(), key -> new HashSet<>())
+                                .add(pair[1].trim().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            parsed.add(new Endpoint(parts[0].trim(), toUrl(parts[1].trim()), Integer.parseInt(parts[2].trim()),
+                    filters));
+        }
+        return parsed;
+    }
+
+    private static URL toUrl(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Invalid remote endpoint URL: " + url, e);
+        }
+    }
+
+    /**
+     * A WebDriver hub with a session capacity, capability filters and health. Mutable state is guarded by
+     * {@link #LOCK}.
+     */
+    static final class Endpoint {
+
+        private final String name;
+        private final URL url;
+        private final int capacity;
+        private final Map<String, Set<String>> filters;
+        private final boolean sauce;
+        private final LatencyHistogram creationLatency = new LatencyHistogram();
+        private int inUse;
+        private int peakInUse;
+        private int consecutiveFailures;
+        private long unhealthyUntilMillis;
+        private long failures;
+        private long busyNanos;
+        private long lastChangeNanos = System.nanoTime();
+        private final long createdNanos = System.nanoTime();
+
+        private Endpoint(String name, URL url, int capacity, Map<String, Set<String>> filters) {
+            this.name = name;
+            this.url = url;
+            this.capacity = Math.max(1, capacity);
+            this.filters = filters;
+            this.sauce = SAUCE_ENDPOINT.equals(name);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        URL getUrl() {
+            return url;
+        }
+
+        int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Returns True if the endpoint's filters match a session's capabilities.
+         *
+         * @param capabilities {@link Capabilities} of the session.
+         * @return Boolean true or false.
+         */
+        boolean accepts(Capabilities capabilities) {
+            for (Map.Entry<String, Set<String>> filter : filters.entrySet()) {
+                Object value = capabilities.getCapability(filter.getKey());
+                if (value == null || !filter.getValue().contains(value.toString().toLowerCase(Locale.ROOT))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isHealthy(long nowMillis) {
+            return nowMillis >= unhealthyUntilMillis;
+        }
+
+        private double utilization() {
+            if (sauce) {
+                return SauceConcurrency.getUtilization();
+            }
+            return capacity == Integer.MAX_VALUE ? 0 : (double) inUse / capacity;
+        }
+
+        private boolean tryAcquire() {
+            if (inUse >= capacity || (sauce && !SauceConcurrency.tryAcquire())) {
+                return false;
+            }
+            accumulateBusyTime();
+            inUse++;
+            peakInUse = Math.max(peakInUse, inUse);
+            return true;
+        }
+
+        private void release() {
+            accumulateBusyTime();
+            inUse--;
+            if (sauce) {
+                SauceConcurrency.release();
+            }
+        }
+
+        private void accumulateBusyTime() {
+            long now = System.nanoTime();
+            busyNanos += inUse * (now - lastChangeNanos);
+            lastChangeNanos = now;
+        }
+
+        private void recordSuccess(long creationNanos) {
+            creationLatency.record(creationNanos);
+            LOCK.lock();
+            try {
+                consecutiveFailures = 0;
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        private void recordFailure() {
+            LOCK.lock();
+            try {
+                failures++;
+                if (++consecutiveFailures >= FAILURES_BEFORE_UNHEALTHY) {
+                    unhealthyUntilMillis = System.currentTimeMillis() + UNHEALTHY_MILLIS;
+                    LOGGER.warn("Remote endpoint " + name + " failed " + consecutiveFailures + " times in a row, "
+                            + "skipping it for " + TimeUnit.MILLISECONDS.toSeconds(UNHEALTHY_MILLIS) + " seconds");
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        private void logMetrics() {
+            if (creationLatency.getCount() + failures == 0) {
+                return;
+            }
+            accumulateBusyTime();
+            double avgInUse = (double) busyNanos / Math.max(1, System.nanoTime() - createdNanos);
+            String cap = capacity == Integer.MAX_VALUE ? "unlimited" : String.valueOf(capacity);
+            String utilization = capacity == Integer.MAX_VALUE ? ""
+                    : String.format(", avg/peak utilization: %.0f%%/%d%%", 100 * avgInUse / capacity,
+                    100 * peakInUse / capacity);
+            LOGGER.info(String.format("Remote endpoint %s (%s, cap %s) sessions: %d, failures: %d, "
+                            + "avg/peak in use: %.1f/%d%s, session creation p50/p95/max ms: %.0f/%.0f/%.0f%s",
+                    name, url.getHost(), cap, creationLatency.getCount(), failures, avgInUse, peakInUse, utilization,
+                    creationLatency.getPercentileMillis(50), creationLatency.getPercentileMillis(95),
+                    creationLatency.getMaxMillis(), isHealthy(System.currentTimeMillis()) ? "" : ", unhealthy"));
+        }
+    }
+
+    /**
+     * A {@link RemoteWebDriver} session on an {@link Endpoint}, which frees its slot on the endpoint when quit.
+     */
+    private static final class EndpointWebDriver extends RemoteWebDriver {
+
+        private final Endpoint endpoint;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private EndpointWebDriver(Endpoint endpoint, Capabilities capabilities) {
+            super(HttpClientPool.createCommandExecutor(endpoint.url), capabilities);
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void quit() {
+            try {
+                super.quit();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release(endpoint);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package framework;
+
+import com.google.common.base.Throwables;
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable report update published by {@link ParallelReportingListener} and written by {@link ReportWriter}.
+ * Everything the report needs is captured on the test thread, so the writer never touches TestNG objects.
+ */
+final class ReportEvent {
+
+    enum Type {
+        SUITE_STARTED, TEST_STARTED, TEST_LOG, TEST_PASSED, TEST_FAILED, TEST_SKIPPED, FLUSH
+    }
+
+    private final Type type;
+    private final long testId;
+    private final String name;
+    private final String description;
+    private final String category;
+    private final String log;
+    private final Throwable throwable;
+    private final long publishedNanos = System.nanoTime();
+    private final long timeMillis = System.currentTimeMillis();
+    private final CountDownLatch flushed;
+
+    private ReportEvent(Type type, long testId, String name, String description, String category, String log,
+                        Throwable throwable) {
+        this.type = type;
+        this.testId = testId;
+        this.name = name;
+        this.description = description;
+        this.category = category;
+        this.log = log;
+        this.throwable = throwable;
+        this.flushed = type == Type.FLUSH ? new CountDownLatch(1) : null;
+    }
+
+    static ReportEvent suiteStarted(String suiteName) {
+        return new ReportEvent(Type.SUITE_STARTED, 0, suiteName, null, null, null, null);
+    }
+
+    static ReportEvent testStarted(long testId, String name, String featureName, String browser) {
+        return new ReportEvent(Type.TEST_STARTED, testId, name, featureName, browser, null, null);
+    }
+
+    static ReportEvent testLog(long testId, String log) {
+        return new ReportEvent(Type.TEST_LOG, testId, null, null, null, log, null);
+    }
+
+    static ReportEvent testPassed(long testId) {
+        return new ReportEvent(Type.TEST_PASSED, testId, null, null, null, null, null);
+    }
+
+    static ReportEvent testFailed(long testId, Throwable throwable) {
+        return new ReportEvent(Type.TEST_FAILED, testId, null, null, null, null, throwable);
+    }
+
+    static ReportEvent testSkipped(long testId, Throwable throwable) {
+        return new ReportEvent(Type.TEST_SKIPPED, testId, null, null, null, null, throwable);
+    }
+
+    static ReportEvent flush() {
+        return new ReportEvent(Type.FLUSH, 0, null, null, null, null, null);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    long getTestId() {
+        return testId;
+    }
+
+    /**
+     * Returns the suite name for {@link Type#SUITE_STARTED}, or the test name for {@link Type#TEST_STARTED}.
+     *
+     * @return String name.
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the feature name for {@link Type#TEST_STARTED}.
+     *
+     * @return String description.
+     */
+    String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the browser for {@link Type#TEST_STARTED}.
+     *
+     * @return String category.
+     */
+    String getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the log lines for {@link Type#TEST_LOG}.
+     *
+     * @return String log.
+     */
+    String getLog() {
+        return log;
+    }
+
+    Throwable getThrowable() {
+        return throwable;
+    }
+
+    long getPublishedNanos() {
+        return publishedNanos;
+    }
+
+    /**
+     * Marks a {@link Type#FLUSH} event as written, releasing the thread waiting in {@link #awaitFlushed(long)}.
+     */
+    void markFlushed() {
+        flushed.countDown();
+    }
+
+    /**
+     * Waits until this {@link Type#FLUSH} event is written, so every event published before it is on disk.
+     *
+     * @param timeoutMillis Most milliseconds to wait.
+     * @return Boolean true if the event was written in time.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    boolean awaitFlushed(long timeoutMillis) throws InterruptedException {
+        return flushed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the event as a JSON object, as read back by {@link ReportRenderer}. Only non-null fields are included,
+     * and a throwable is written as its stack trace.
+     *
+     * @return {@link JsonObject} of the event.
+     */
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", type.name());
+        json.addProperty("time", timeMillis);
+        if (testId != 0) {
+            json.addProperty("testId", testId);
+        }
+        json.addProperty("name", name);
+        json.addProperty("description", description);
+        json.addProperty("category", category);
+        json.addProperty("log", log);
+        if (throwable != null) {
+            json.addProperty("error", Throwables.getStackTraceAsString(throwable));
+        }
+        return json;
+    }
+}
@@ -0,0 +1,119 @@
+package framework;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders the Extent HTML report once from a {@link ReportWriter} event file. The file is read a line at a time, so
+ * it can also be rendered from a run that did not finish; an incomplete last line is skipped.
+ */
+final class ReportRenderer {
+
+    private static final Logger LOGGER = LoggerService.getLogger(ReportRenderer.class);
+
+    private ReportRenderer() {}
+
+    /**
+     * Renders an event file to an Extent HTML report.
+     *
+     * @param eventFile {@link Path} of the JSON lines event file.
+     * @param htmlFile  {@link Path} of the HTML report to write.
+     */
+    static void render(Path eventFile, Path htmlFile) {
+        if (!Files.isRegularFile(eventFile)) {
+            LOGGER.warn("No report events to render in " + eventFile);
+            return;
+        }
+        ExtentReports report = new ExtentReports();
+        Map<Long, ExtentTest> openTests = new HashMap<>();
+        boolean attached = false;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(eventFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                JsonObject event;
+                try {
+                    event = new JsonParser().parse(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    LOGGER.warn("Skipping unreadable report event on line " + lineNumber + " of " + eventFile);
+                    continue;
+                }
+                String type = getString(event, "type");
+                if (ReportEvent.Type.SUITE_STARTED.name().equals(type)) {
+                    if (!attached) {
+                        report.attachReporter(createHtmlReporter(htmlFile, getString(event, "name")));
+                        attached = true;
+                    }
+                } else if (ReportEvent.Type.TEST_STARTED.name().equals(type)) {
+                    ExtentTest test = report.createTest(getString(event, "name"), getString(event, "description"));
+                    test.assignCategory(getString(event, "category"));
+                    test.getModel().setStartTime(new Date(event.get("time").getAsLong()));
+                    openTests.put(event.get("testId").getAsLong(), test);
+                } else if (ReportEvent.Type.TEST_LOG.name().equals(type)) {
+                    ExtentTest test = openTests.get(event.get("testId").getAsLong());
+                    if (test != null) {
+                        test.info(MarkupHelper.createCodeBlock(getString(event, "log")));
+                    }
+                } else if (event.has("testId")) {
+                    ExtentTest test = openTests.remove(event.get("testId").getAsLong());
+                    if (test != null) {
+                        logResult(test, type, event);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (!attached) {
+            report.attachReporter(createHtmlReporter(htmlFile, htmlFile.getFileName().toString()));
+        }
+        report.flush();
+        LOGGER.info(Messaging.createdFile(htmlFile.toString()));
+    }
+
+    private static void logResult(ExtentTest test, String type, JsonObject event) {
+        String error = getString(event, "error");
+        if (ReportEvent.Type.TEST_PASSED.name().equals(type)) {
+            test.log(Status.PASS, "Test passed");
+        } else if (ReportEvent.Type.TEST_FAILED.name().equals(type)) {
+            test.log(Status.FAIL, MarkupHelper.createCodeBlock(error == null ? "Test failed" : error));
+        } else if (ReportEvent.Type.TEST_SKIPPED.name().equals(type)) {
+            if (error == null) {
+                test.log(Status.SKIP, "Test skipped");
+            } else {
+                test.log(Status.SKIP, MarkupHelper.createCodeBlock(error));
+            }
+        }
+        test.getModel().setEndTime(new Date(event.get("time").getAsLong()));
+    }
+
+    private static ExtentHtmlReporter createHtmlReporter(Path htmlFile, String name) {
+        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(htmlFile.toString());
+        htmlReporter.config().setDocumentTitle(name);
+        htmlReporter.config().setReportName(name);
+        return htmlReporter;
+    }
+
+    private static String getString(JsonObject object, String member) {
+        JsonElement element = object.get(member);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+}
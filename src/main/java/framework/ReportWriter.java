@@ -0,0 +1,220 @@
+package framework;
+
+import com.google.gson.Gson;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static framework.Constants.ENV_REPORT_EVENTS_FILE;
+import static framework.Constants.ENV_REPORT_FSYNC_MILLIS;
+import static framework.Constants.ENV_REPORT_QUEUE_SIZE;
+
+/**
+ * The single thread that streams report results to {@link #FILE}, an append-only file with one JSON
+ * {@link ReportEvent} per line. Test threads publish events to a bounded, lock-free queue and return immediately; the
+ * writer appends them in order through a buffered {@link FileChannel}. A test thread only waits if the queue is full,
+ * which is counted as a stall.
+ * <p>
+ * Buffered events are written whenever the queue runs empty, and forced to disk at most every
+ * {@link Constants#ENV_REPORT_FSYNC_MILLIS} and on every {@link #drain()}, so a JVM that dies mid-run leaves the
+ * results up to that point. The HTML report is rendered from the file once, by {@link ReportRenderer}.
+ */
+final class ReportWriter {
+
+    private static final Logger LOGGER = LoggerService.getLogger(ReportWriter.class);
+    private static final Path FILE = Paths.get(EnvVars.getString(ENV_REPORT_EVENTS_FILE,
+            "target/parallel-suite-events.jsonl"));
+    private static final long FSYNC_NANOS = TimeUnit.MILLISECONDS.toNanos(EnvVars.getLong(ENV_REPORT_FSYNC_MILLIS, 1000));
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CAPACITY = EnvVars.getInt(ENV_REPORT_QUEUE_SIZE, 10_000);
+    private static final long FULL_QUEUE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long DRAIN_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final Queue<ReportEvent> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger SIZE = new AtomicInteger();
+    private static final AtomicLong PUBLISHED = new AtomicLong();
+    private static final AtomicInteger MAX_DEPTH = new AtomicInteger();
+    private static final AtomicLong STALLS = new AtomicLong();
+    private static final Thread WRITER;
+    private static volatile long processed;
+    private static volatile boolean idle;
+    private static volatile long totalLagNanos; //written by the writer thread only
+    private static volatile long maxLagNanos; //written by the writer thread only
+
+    private static final Gson GSON = new Gson();
+    private static final ByteBuffer BUFFER = ByteBuffer.allocate(BUFFER_SIZE); //writer thread only
+    private static FileChannel channel; //writer thread only
+    private static boolean unsynced; //writer thread only
+    private static long lastSyncNanos = System.nanoTime(); //writer thread only
+
+    static {
+        WRITER = new DaemonThreadFactory("extent-report-writer").newThread(ReportWriter::run);
+        WRITER.start();
+    }
+
+    private ReportWriter() {}
+
+    /**
+     * Queues an event for the writer. Only waits while the queue is full.
+     *
+     * @param event {@link ReportEvent} to apply.
+     */
+    static void publish(ReportEvent event) {
+        while (SIZE.incrementAndGet() > CAPACITY) {
+            SIZE.decrementAndGet();
+            STALLS.incrementAndGet();
+            LockSupport.parkNanos(FULL_QUEUE_PARK_NANOS);
+        }
+        QUEUE.offer(event);
+        PUBLISHED.incrementAndGet();
+        MAX_DEPTH.accumulateAndGet(SIZE.get(), Math::max);
+        if (idle) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    /**
+     * Returns the file events are streamed to.
+     *
+     * @return {@link Path} of the event file.
+     */
+    static Path getFile() {
+        return FILE;
+    }
+
+    /**
+     * Waits until every event published so far has been written and forced to disk.
+     */
+    static void drain() {
+        ReportEvent flush = ReportEvent.flush();
+        publish(flush);
+        try {
+            if (!flush.awaitFlushed(DRAIN_TIMEOUT_MILLIS)) {
+                LOGGER.warn("Report writer did not drain within " + DRAIN_TIMEOUT_MILLIS + " ms, "
+                        + Math.max(0, PUBLISHED.get() - processed) + " event(s) pending");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Logs how many events were written, how long they waited in the queue, the deepest the queue got, and how often
+     * test threads found it full.
+     */
+    static void logMetrics() {
+        long events = processed;
+        if (events == 0) {
+            return;
+        }
+        LOGGER.info("Report events: " + events + ", avg/max queue lag ms: "
+                + TimeUnit.NANOSECONDS.toMillis(totalLagNanos / events) + "/"
+                + TimeUnit.NANOSECONDS.toMillis(maxLagNanos) + ", max queue depth: " + MAX_DEPTH.get()
+                + ", producer stalls: " + STALLS.get());
+    }
+
+    private static void run() {
+        while (true) {
+            ReportEvent event = QUEUE.poll();
+            if (event == null) {
+                idle = true;
+                if (QUEUE.isEmpty()) {
+                    writeBuffer();
+                    syncIfDue();
+                    LockSupport.parkNanos(FSYNC_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+            SIZE.decrementAndGet();
+            long lag = System.nanoTime() - event.getPublishedNanos();
+            totalLagNanos += lag;
+            maxLagNanos = Math.max(maxLagNanos, lag);
+            if (event.getType() == ReportEvent.Type.FLUSH) {
+                writeBuffer();
+                sync();
+            } else {
+                append(event);
+                syncIfDue();
+            }
+            processed++;
+            if (event.getType() == ReportEvent.Type.FLUSH) {
+                event.markFlushed();
+            }
+        }
+    }
+
+    private static void append(ReportEvent event) {
+        byte[] line = (GSON.toJson(event.toJson()) + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            if (line.length > BUFFER.remaining()) {
+                writeBuffer();
+            }
+            if (line.length > BUFFER.capacity()) {
+                write(ByteBuffer.wrap(line));
+            } else {
+                BUFFER.put(line);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write " + event.getType() + " report event to " + FILE + ": " + e);
+        }
+    }
+
+    private static void writeBuffer() {
+        if (BUFFER.position() == 0) {
+            return;
+        }
+        BUFFER.flip();
+        try {
+            write(BUFFER);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write report events to " + FILE + ": " + e);
+        } finally {
+            BUFFER.clear();
+        }
+    }
+
+    private static void write(ByteBuffer buffer) throws IOException {
+        if (channel == null) {
+            Files.createDirectories(FILE.toAbsolutePath().getParent());
+            channel = FileChannel.open(FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        unsynced = true;
+    }
+
+    private static void syncIfDue() {
+        if (unsynced && System.nanoTime() - lastSyncNanos >= FSYNC_NANOS) {
+            writeBuffer();
+            sync();
+        }
+    }
+
+    private static void sync() {
+        lastSyncNanos = System.nanoTime();
+        if (!unsynced) {
+            return;
+        }
+        try {
+            channel.force(false);
+            unsynced = false;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to sync report events to " + FILE + ": " + e);
+        }
+    }
+}
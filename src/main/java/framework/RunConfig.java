@@ -0,0 +1,285 @@
+package framework;
+
+import com.google.common.base.Strings;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.remote.CapabilityType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static framework.Constants.ENV_BROWSERS;
+import static framework.Constants.ENV_SAUCE_API_KEY;
+import static framework.Constants.ENV_SAUCE_USERNAME;
+import static framework.Constants.MICROSOFTEDGE_NO_SPACE_CHAR;
+import static framework.Constants.MICROSOFT_EDGE_BROWSER;
+
+/**
+ * Run configuration resolved once, when first used, from system properties, environment variables (a system property
+ * of the same name takes precedence) and {@link LocalConfig}. Workers read this immutable snapshot instead of looking
+ * values up for every scenario.
+ * <p>
+ * Each browser of {@link Constants#ENV_BROWSERS} gets a {@link BrowserConfig} with its version, platform and
+ * precomputed Saucelabs {@link Capabilities}. {@link ParallelCucumberRunner} binds the {@link BrowserConfig} of its
+ * {@link org.testng.xml.XmlTest} to each thread running one of its scenarios, see {@link #currentTest()}.
+ * <p>
+ * Missing values only fail when they are read, so a local run does not need the parallel suite's configuration.
+ * {@link LocalConfig} is only read, and its file created, once a local value is needed.
+ */
+final class RunConfig {
+
+    private static final String PLATFORM_CAPABILITY = "platform"; //CapabilityType.PLATFORM, deprecated in Selenium 3
+    private static final ThreadLocal<BrowserConfig> CURRENT_TEST = new ThreadLocal<>();
+    private static volatile RunConfig instance;
+    private static volatile boolean localResolved;
+
+    private final List<String> browsers;
+    private final Map<String, BrowserConfig> browserConfigs;
+    private final String sauceUsername;
+    private final String sauceApiKey;
+
+    private RunConfig() {
+        String browserList = lookup(ENV_BROWSERS);
+        List<String> names = new ArrayList<>();
+        Map<String, BrowserConfig> configs = new LinkedHashMap<>();
+        if (browserList != null) {
+            for (String browser : browserList.split(",")) {
+                String name = browser.trim().toUpperCase();
+                names.add(name);
+                ParallelSuite.Browsers known = ParallelSuite.Browsers.find(name);
+                if (known != null) {
+                    String version = lookup(known.getVersionEnvName());
+                    configs.put(name.toLowerCase(), new BrowserConfig(name, version == null ? "latest" : version,
+                            lookup(known.getPlatformEnvName()), known.getPlatformEnvName()));
+                }
+            }
+        }
+        this.browsers = names.isEmpty() ? null : Collections.unmodifiableList(names);
+        this.browserConfigs = Collections.unmodifiableMap(configs);
+        this.sauceUsername = lookup(ENV_SAUCE_USERNAME);
+        this.sauceApiKey = lookup(ENV_SAUCE_API_KEY);
+    }
+
+    /**
+     * Returns the run configuration, resolving it on the first call.
+     *
+     * @return {@link RunConfig} object.
+     */
+    static RunConfig get() {
+        RunConfig config = instance;
+        if (config == null) {
+            synchronized (RunConfig.class) {
+                config = instance;
+                if (config == null) {
+                    config = new RunConfig();
+                    instance = config;
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Binds the {@link BrowserConfig} of the test whose scenario the calling thread is about to run.
+     *
+     * @param browserConfig {@link BrowserConfig} of the running test.
+     */
+    static void bindCurrentTest(BrowserConfig browserConfig) {
+        CURRENT_TEST.set(browserConfig);
+    }
+
+    /**
+     * Returns the {@link BrowserConfig} bound to the calling thread, or null if none is.
+     *
+     * @return {@link BrowserConfig} of the running test.
+     */
+    static BrowserConfig currentTest() {
+        return CURRENT_TEST.get();
+    }
+
+    /**
+     * Returns the upper case browser names of {@link Constants#ENV_BROWSERS}, in order.
+     *
+     * @return List of browser name Strings.
+     */
+    List<String> getBrowsers() {
+        return Objects.requireNonNull(browsers, Messaging.nullEnvVariable(ENV_BROWSERS));
+    }
+
+    /**
+     * Returns the {@link BrowserConfig} of a browser of {@link Constants#ENV_BROWSERS}.
+     *
+     * @param browser A String name of a browser.
+     * @return {@link BrowserConfig} object.
+     */
+    BrowserConfig getBrowserConfig(String browser) {
+        BrowserConfig config = browserConfigs.get(browser.toLowerCase());
+        if (config == null) {
+            throw new IllegalArgumentException("Invalid browser specified to get configuration for: " + browser);
+        }
+        return config;
+    }
+
+    /**
+     * Returns precomputed Saucelabs {@link Capabilities} for a browser, version and platform, built on the fly if they
+     * do not match a configured browser.
+     *
+     * @param browser  A String name of a browser.
+     * @param version  Browser version.
+     * @param platform Browser platform.
+     * @return {@link Capabilities} object.
+     */
+    Capabilities getSauceCapabilities(String browser, String version, String platform) {
+        BrowserConfig localSauceBrowser = localResolved ? Local.INSTANCE.sauceBrowser : null;
+        for (BrowserConfig config : Arrays.asList(browserConfigs.get(browser.toLowerCase()), localSauceBrowser)) {
+            if (config != null && config.matches(browser, version, platform)) {
+                return config.sauceCapabilities;
+            }
+        }
+        return sauceCapabilities(browser, version, platform);
+    }
+
+    String getSauceUsername() {
+        return Objects.requireNonNull(sauceUsername, Messaging.nullEnvVariable(ENV_SAUCE_USERNAME));
+    }
+
+    String getSauceApiKey() {
+        return Objects.requireNonNull(sauceApiKey, Messaging.nullEnvVariable(ENV_SAUCE_API_KEY));
+    }
+
+    String getLocalBrowser() {
+        return requireLocal(Local.INSTANCE.browser, LocalConfig.Keys.LOCAL_BROWSER);
+    }
+
+    /**
+     * Run tests in Saucelabs? Applies to {@link DriverFactory.DriverMode#LOCAL}.
+     *
+     * @return Boolean true or false.
+     */
+    boolean runInSauce() {
+        return Boolean.parseBoolean(requireLocal(Local.INSTANCE.runInSauce, LocalConfig.Keys.RUN_IN_SAUCE));
+    }
+
+    String getLocalSauceBrowser() {
+        return requireLocal(Local.INSTANCE.sauceBrowser.browser, LocalConfig.Keys.SAUCE_BROWSER);
+    }
+
+    String getLocalSauceVersion() {
+        return requireLocal(Local.INSTANCE.sauceBrowser.version, LocalConfig.Keys.SAUCE_BROWSER_VERSION);
+    }
+
+    String getLocalSaucePlatform() {
+        return requireLocal(Local.INSTANCE.sauceBrowser.platform, LocalConfig.Keys.SAUCE_BROWSER_PLATFORM);
+    }
+
+    String getLocalSauceUsername() {
+        return requireLocal(Local.INSTANCE.sauceUsername, LocalConfig.Keys.SAUCE_USERNAME);
+    }
+
+    String getLocalSauceApiKey() {
+        return requireLocal(Local.INSTANCE.sauceApiKey, LocalConfig.Keys.SAUCE_API_KEY);
+    }
+
+    private static String requireLocal(String value, String propertyKey) {
+        if (value == null) {
+            throw new NullPointerException(Messaging.nullLocalConfigValue(propertyKey));
+        }
+        return value;
+    }
+
+    /**
+     * Returns the system property of a name if set, else the environment variable, else null.
+     */
+    private static String lookup(String name) {
+        String value = System.getProperty(name);
+        if (Strings.isNullOrEmpty(value)) {
+            value = System.getenv(name);
+        }
+        return Strings.isNullOrEmpty(value) ? null : value;
+    }
+
+    private static Capabilities sauceCapabilities(String browser, String version, String platform) {
+        // Sauce requires "internet explorer" for IE, but "microsoftedge" for MS Edge
+        String browserName = browser.equalsIgnoreCase(MICROSOFT_EDGE_BROWSER) ? MICROSOFTEDGE_NO_SPACE_CHAR : browser;
+        return new ImmutableCapabilities(CapabilityType.BROWSER_NAME, browserName, CapabilityType.VERSION, version,
+                PLATFORM_CAPABILITY, platform);
+    }
+
+    /**
+     * Values of {@link LocalConfig}, resolved on first use.
+     */
+    private static final class Local {
+
+        private static final Local INSTANCE = new Local();
+
+        private final String browser;
+        private final String runInSauce;
+        private final BrowserConfig sauceBrowser;
+        private final String sauceUsername;
+        private final String sauceApiKey;
+
+        private Local() {
+            browser = LocalConfig.getProperty(LocalConfig.Keys.LOCAL_BROWSER);
+            runInSauce = LocalConfig.getProperty(LocalConfig.Keys.RUN_IN_SAUCE);
+            sauceBrowser = new BrowserConfig(LocalConfig.getProperty(LocalConfig.Keys.SAUCE_BROWSER),
+                    LocalConfig.getProperty(LocalConfig.Keys.SAUCE_BROWSER_VERSION),
+                    LocalConfig.getProperty(LocalConfig.Keys.SAUCE_BROWSER_PLATFORM), null);
+            sauceUsername = LocalConfig.getProperty(LocalConfig.Keys.SAUCE_USERNAME);
+            sauceApiKey = LocalConfig.getProperty(LocalConfig.Keys.SAUCE_API_KEY);
+            localResolved = true;
+        }
+    }
+
+    /**
+     * Resolved configuration of one browser test.
+     */
+    static final class BrowserConfig {
+
+        private final String browser;
+        private final String version;
+        private final String platform;
+        private final String platformEnvName;
+        private final Capabilities sauceCapabilities;
+
+        private BrowserConfig(String browser, String version, String platform, String platformEnvName) {
+            this.browser = browser;
+            this.version = version;
+            this.platform = platform;
+            this.platformEnvName = platformEnvName;
+            this.sauceCapabilities = browser == null || version == null || platform == null ? null
+                    : sauceCapabilities(browser, version, platform);
+        }
+
+        String getBrowser() {
+            return browser;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        String getPlatform() {
+            return Objects.requireNonNull(platform, Messaging.nullEnvVariable(platformEnvName));
+        }
+
+        private boolean matches(String browser, String version, String platform) {
+            return sauceCapabilities != null && this.browser.equalsIgnoreCase(browser) && this.version.equals(version)
+                    && this.platform.equals(platform);
+        }
+
+        @Override
+        public String toString() {
+            return browser + " " + version + (platform == null ? "" : " " + platform);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "browsers: " + browserConfigs.values();
+    }
+}
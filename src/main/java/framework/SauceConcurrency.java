@@ -0,0 +1,196 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static framework.Constants.ENV_SAUCE_CONCURRENCY_REFRESH_SECONDS;
+
+/**
+ * Limits how many Saucelabs sessions this run opens to what the Saucelabs account has free, so sessions do not queue
+ * or time out on the remote side. The account's concurrency limit is read from the Sauce REST concurrency endpoint,
+ * and its usage, including other runs sharing the account, from the activity endpoint. Both are refreshed every
+ * {@link Constants#ENV_SAUCE_CONCURRENCY_REFRESH_SECONDS}, 0 disables the limit.
+ * <p>
+ * {@link RemoteEndpointRegistry} only routes sessions to Saucelabs while the account has a free slot. If the account
+ * cannot be read, sessions are not limited.
+ */
+final class SauceConcurrency {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SauceConcurrency.class);
+    private static final long REFRESH_SECONDS = EnvVars.getLong(ENV_SAUCE_CONCURRENCY_REFRESH_SECONDS, 15);
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+    private static final ReentrantLock LOCK = new ReentrantLock(true);
+    private static final AtomicLong ACQUISITIONS = new AtomicLong();
+    private static final AtomicLong REFUSED = new AtomicLong();
+    private static final AtomicLong REFRESH_FAILURES = new AtomicLong();
+    private static int accountLimit = UNKNOWN; //guarded by LOCK
+    private static int otherSessions; //guarded by LOCK
+    private static int inUse; //guarded by LOCK
+    private static int peakInUse; //guarded by LOCK
+    private static SauceRestClient client;
+    private static ScheduledExecutorService refresher;
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log Saucelabs concurrency metrics",
+                SauceConcurrency::logMetrics);
+    }
+
+    private SauceConcurrency() {}
+
+    /**
+     * Returns True if Saucelabs sessions are limited by the account's free concurrency.
+     *
+     * @return Boolean true or false.
+     */
+    static boolean isEnabled() {
+        return REFRESH_SECONDS > 0;
+    }
+
+    /**
+     * Reads the account's limit and usage, and starts refreshing them in the background. Makes blocking REST calls
+     * on the first call only, so call it before opening sessions and without holding other locks.
+     *
+     * @param sauceVars {@link ISauceVars} with the account's credentials.
+     */
+    static synchronized void start(ISauceVars sauceVars) {
+        if (!isEnabled() || refresher != null) {
+            return;
+        }
+        start(new SauceRestClient(sauceVars.getUsername(), sauceVars.getApiKey()));
+    }
+
+    /**
+     * Reads the account's limit and usage through a {@link SauceRestClient}, and starts refreshing them in the
+     * background. Only the first call has an effect.
+     *
+     * @param restClient {@link SauceRestClient} of the account.
+     */
+    static synchronized void start(SauceRestClient restClient) {
+        if (!isEnabled() || refresher != null) {
+            return;
+        }
+        client = restClient;
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("sauce-concurrency"));
+        refresher.scheduleWithFixedDelay(SauceConcurrency::refresh, REFRESH_SECONDS, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Takes a slot if the Saucelabs account has one free for another session. Does not block. Sessions are not limited
+     * until {@link #start(ISauceVars)} has read the account.
+     *
+     * @return Boolean true if a slot was taken.
+     */
+    static boolean tryAcquire() {
+        if (!isEnabled()) {
+            return true;
+        }
+        LOCK.lock();
+        try {
+            if (inUse >= available()) {
+                REFUSED.incrementAndGet();
+                return false;
+            }
+            inUse++;
+            peakInUse = Math.max(peakInUse, inUse);
+            ACQUISITIONS.incrementAndGet();
+            return true;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Frees a slot taken by {@link #tryAcquire()}.
+     */
+    static void release() {
+        if (!isEnabled()) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            inUse--;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns the share of the account's free slots this run is using, or 0 if the limit is not known.
+     *
+     * @return double utilization from 0 to 1.
+     */
+    static double getUtilization() {
+        LOCK.lock();
+        try {
+            int available = available();
+            return available == UNKNOWN ? 0 : available <= 0 ? 1 : (double) inUse / available;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Logs the account's limit, and how often a session found it full. Time spent waiting for a slot is logged by
+     * {@link RemoteEndpointRegistry}.
+     */
+    static void logMetrics() {
+        if (ACQUISITIONS.get() == 0) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            String limit = accountLimit == UNKNOWN ? "unknown" : String.valueOf(accountLimit);
+            LOGGER.info("Saucelabs concurrency (account limit " + limit + ") sessions: " + ACQUISITIONS.get()
+                    + ", found the account full: " + REFUSED.get() + ", peak in use: " + peakInUse
+                    + ", failed account reads: " + REFRESH_FAILURES.get());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns how many sessions this run may have open: the account's limit less the sessions opened elsewhere.
+     */
+    private static int available() {
+        return accountLimit == UNKNOWN ? UNKNOWN : accountLimit - otherSessions;
+    }
+
+    /**
+     * Reads the account's limit and usage. Sessions this run has open are subtracted from the usage, leaving the
+     * sessions of other runs. On failure the limit becomes unknown, letting waiting sessions through.
+     */
+    static void refresh() {
+        int limit;
+        int usage;
+        try {
+            JSONObject concurrency = new JSONObject(client.getConcurrency()).getJSONObject("concurrency")
+                    .getJSONObject(client.getUsername());
+            limit = concurrency.getJSONObject("current").getInt("overall")
+                    + concurrency.getJSONObject("remaining").getInt("overall");
+            JSONObject totals = new JSONObject(client.getActivity()).getJSONObject("totals");
+            usage = totals.getInt("in progress") + totals.getInt("queued");
+        } catch (RuntimeException e) { //JSONException, or an empty response from a failed request
+            REFRESH_FAILURES.incrementAndGet();
+            LOGGER.warn("Could not read Saucelabs account concurrency, sessions are not limited: " + e.getMessage());
+            limit = UNKNOWN;
+            usage = 0;
+        }
+        LOCK.lock();
+        try {
+            if (limit != accountLimit) {
+                LOGGER.debug("Saucelabs account concurrency limit: " + (limit == UNKNOWN ? "unknown" : limit));
+            }
+            accountLimit = limit;
+            otherSessions = Math.max(0, usage - inUse);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
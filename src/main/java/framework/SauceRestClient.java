@@ -0,0 +1,142 @@
+package framework;
+
+import com.saucelabs.saucerest.SauceREST;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static framework.Constants.ENV_SAUCE_REST_URL;
+
+/**
+ * {@link SauceREST} with the timeouts of {@link HttpClientPool}. Its connections are kept alive by
+ * {@link HttpURLConnection}'s own per-destination cache, so response bodies are always read to the end.
+ * <p>
+ * Requests go to {@link Constants#ENV_SAUCE_REST_URL} instead of Saucelabs when it is set, e.g.
+ * http://localhost:8080/rest/ for a local stub server.
+ */
+final class SauceRestClient extends SauceREST {
+
+    private static final long serialVersionUID = 1L;
+    private static final String REST_URL = EnvVars.getString(ENV_SAUCE_REST_URL, null);
+    private final String restUrl;
+
+    SauceRestClient(String username, String accessKey) {
+        this(username, accessKey, REST_URL);
+    }
+
+    /**
+     * @param username  Saucelabs username.
+     * @param accessKey Saucelabs access key.
+     * @param restUrl   Base URL requests go to instead of Saucelabs, or null for Saucelabs.
+     */
+    SauceRestClient(String username, String accessKey, String restUrl) {
+        super(username, accessKey);
+        this.restUrl = restUrl;
+    }
+
+    @Override
+    public HttpURLConnection openConnection(URL url) throws IOException {
+        return HttpClientPool.configure(super.openConnection(url));
+    }
+
+    @Override
+    protected URL buildURL(String endpoint) {
+        if (restUrl == null) {
+            return super.buildURL(endpoint);
+        }
+        try {
+            return new URL(new URL(restUrl), endpoint);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Invalid " + ENV_SAUCE_REST_URL + ": " + restUrl, e);
+        }
+    }
+
+    /**
+     * Updates a job's fields in one request. Unlike {@link #updateJobInfo(String, Map)}, failures are thrown so the
+     * caller can retry them.
+     *
+     * @param jobId   Saucelabs job id, the session id of the job.
+     * @param updates Job fields to set, e.g. build, name, tags or passed.
+     * @throws IOException if the request fails, or a {@link StatusException} if it is rejected.
+     */
+    void updateJob(String jobId, Map<String, Object> updates) throws IOException {
+        HttpURLConnection connection = openConnection(buildURL("v1/" + username + "/jobs/" + jobId));
+        connection.setDoOutput(true);
+        connection.setRequestMethod("PUT");
+        connection.setRequestProperty("Content-Type", "application/json");
+        addAuthenticationProperty(connection);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(new JSONObject(updates).toString().getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        consume(status >= 400 ? connection.getErrorStream() : connection.getInputStream());
+        if (status >= 400) {
+            throw new StatusException(status, connection.getHeaderField("Retry-After"));
+        }
+    }
+
+    private static void consume(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try (InputStream body = in) {
+            byte[] buffer = new byte[4096];
+            while (body.read(buffer) != -1) {
+                //read to the end so the connection can be reused
+            }
+        }
+    }
+
+    /**
+     * A request rejected by Saucelabs with an HTTP error status.
+     */
+    static final class StatusException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+        private final int status;
+        private final long retryAfterMillis;
+
+        StatusException(int status, String retryAfter) {
+            super("Saucelabs responded with HTTP " + status);
+            this.status = status;
+            this.retryAfterMillis = parseRetryAfter(retryAfter);
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns True if the request may succeed when sent again: rate limited, timed out, or a server error.
+         *
+         * @return Boolean true or false.
+         */
+        boolean isRetryable() {
+            return status == 429 || status == 408 || status >= 500;
+        }
+
+        /**
+         * Returns the delay requested by a Retry-After header in milliseconds, or 0 if there was none.
+         *
+         * @return long milliseconds to wait before retrying.
+         */
+        long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        private static long parseRetryAfter(String retryAfter) {
+            try {
+                return retryAfter == null ? 0 : Long.parseLong(retryAfter.trim()) * 1000;
+            } catch (NumberFormatException e) {
+                return 0; //an HTTP date, fall back to the caller's backoff
+            }
+        }
+    }
+}
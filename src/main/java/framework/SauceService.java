@@ -1,12 +1,12 @@
 package framework;
 
 import com.google.common.base.Strings;
-import com.saucelabs.saucerest.SauceREST;
 import io.cucumber.core.api.Scenario;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.remote.SessionId;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,42 +20,39 @@ import static framework.Constants.PROP_USER_NAME;
 
 class SauceService {
 
-    private static final Logger LOGGER = LoggerService.getLogger();
+    private static final Logger LOGGER = LoggerService.getLogger(SauceService.class);
     private static String buildName;
-    private SauceREST sauceClient;
+    private SauceRestClient sauceClient;
     private String jobId;
 
     /*
     prevent instantiation for thread-local singleton class
      */
-    SauceService(String username, String accessKey, SessionId sessionId) {
-        sauceClient = new SauceREST(username, accessKey);
+    SauceService(String username, String accessKey, SessionId sessionId, Scenario scenario) {
+        sauceClient = new SauceRestClient(username, accessKey);
         jobId = sessionId.toString();
-        updateBuildName(getBuildName());
+        updateJobInfo(getBuildName(), scenario);
         LOGGER.info("View execution in Saucelabs: " + getExecutionUrl());
     }
 
     /**
-     * Updates the build name in Saucelabs for a test.
+     * Queues the build name and tags of a test. They are sent along with its result by {@link SauceUpdateDispatcher}.
      */
-    private void updateBuildName(String buildName) {
+    private void updateJobInfo(String buildName, Scenario scenario) {
         Objects.requireNonNull(buildName, "Saucelabs build name cannot be null");
         Map<String, Object> updates = new HashMap<>();
         updates.put("build", buildName);
-        sauceClient.updateJobInfo(jobId, updates);
+        updates.put("tags", new ArrayList<>(scenario.getSourceTagNames()));
+        SauceUpdateDispatcher.update(sauceClient, jobId, updates);
     }
 
     /**
-     * Should be executed in Cucumber "@After" Hook method. Marks test passed or failed in Saucelabs.
+     * Marks test passed or failed in Saucelabs. The update is sent in the background.
      *
-     * @param scenario {@link Scenario} Cucumber scenario that was executed.
+     * @param failed True if the Cucumber {@link Scenario} that was executed failed.
      */
-    void endTestExecution(Scenario scenario) {
-        if (scenario.isFailed()) {
-            sauceClient.jobFailed(jobId);
-        } else {
-            sauceClient.jobPassed(jobId);
-        }
+    void endTestExecution(boolean failed) {
+        SauceUpdateDispatcher.complete(sauceClient, jobId, !failed);
     }
 
     /**
@@ -14,7 +14,8 @@ class SauceServiceManager {
      if (sauceServiceThreadLocal.get() == null) {
          return; //do nothing
      }
-     sauceServiceThreadLocal.get().endTestExecution(scenario);
+     SauceService sauceService = sauceServiceThreadLocal.get();
      sauceServiceThreadLocal.set(null);
+     sauceService.endTestExecution(scenario.isFailed());
     }
 }
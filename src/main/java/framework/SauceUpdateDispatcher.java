@@ -0,0 +1,251 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static framework.Constants.ENV_SAUCE_API_REQUESTS_PER_SECOND;
+import static framework.Constants.ENV_SAUCE_UPDATE_RETRIES;
+import static framework.Constants.ENV_SAUCE_UPDATE_THREADS;
+
+/**
+ * Sends Saucelabs job updates in the background. Fields set while a scenario runs, such as its build and tags, are
+ * held until the job completes and then sent together with its pass/fail status in a single request.
+ * <p>
+ * Requests are limited to {@link Constants#ENV_SAUCE_API_REQUESTS_PER_SECOND} across all jobs, with short bursts
+ * allowed. Requests that fail with a network error, a timeout, rate limiting or a server error are retried up to
+ * {@link Constants#ENV_SAUCE_UPDATE_RETRIES} times with exponential backoff, honouring Retry-After.
+ */
+final class SauceUpdateDispatcher {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SauceUpdateDispatcher.class);
+    private static final int THREADS = Math.max(1, EnvVars.getInt(ENV_SAUCE_UPDATE_THREADS, 2));
+    private static final int RETRIES = Math.max(0, EnvVars.getInt(ENV_SAUCE_UPDATE_RETRIES, 3));
+    private static final double REQUESTS_PER_SECOND = EnvVars.getDouble(ENV_SAUCE_API_REQUESTS_PER_SECOND, 5);
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+    private static final TokenBucket LIMITER = new TokenBucket(REQUESTS_PER_SECOND, 2 * REQUESTS_PER_SECOND);
+    private static final ConcurrentMap<String, PendingJob> PENDING = new ConcurrentHashMap<>();
+    private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(THREADS,
+            new DaemonThreadFactory("sauce-update"));
+    private static final AtomicLong FIELD_UPDATES = new AtomicLong();
+    private static final AtomicLong JOBS = new AtomicLong();
+    private static final AtomicLong REQUESTS = new AtomicLong();
+    private static final AtomicLong RETRIED = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+    private static final AtomicLong TOTAL_THROTTLE_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_THROTTLE_NANOS = new AtomicLong();
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.DRAIN_UPDATES, "drain Saucelabs job updates",
+                SauceUpdateDispatcher::drain);
+    }
+
+    private SauceUpdateDispatcher() {}
+
+    /**
+     * Sets fields on a job without sending them. They are sent when the job completes, or on {@link #drain()}.
+     *
+     * @param client {@link SauceRestClient} of the job's account.
+     * @param jobId  Saucelabs job id.
+     * @param fields Job fields to set.
+     */
+    static void update(SauceRestClient client, String jobId, Map<String, Object> fields) {
+        PENDING.compute(jobId, (id, job) -> {
+            PendingJob pending = job == null ? new PendingJob(client, id) : job;
+            pending.fields.putAll(fields);
+            return pending;
+        });
+        FIELD_UPDATES.incrementAndGet();
+    }
+
+    /**
+     * Sets a job's pass/fail status and queues one request with all of the job's pending fields.
+     *
+     * @param client {@link SauceRestClient} of the job's account.
+     * @param jobId  Saucelabs job id.
+     * @param passed True if the job's scenario passed.
+     */
+    static void complete(SauceRestClient client, String jobId, boolean passed) {
+        update(client, jobId, Collections.singletonMap("passed", passed));
+        PendingJob job = PENDING.remove(jobId);
+        if (job != null) {
+            JOBS.incrementAndGet();
+            schedule(job, 0, 0);
+        }
+    }
+
+    /**
+     * Sends the fields of jobs that never completed, waits up to {@link #DRAIN_TIMEOUT_SECONDS} for queued requests and
+     * their retries, then logs the update metrics. Jobs completed afterwards are sent on the calling thread. Safe to
+     * call more than once.
+     */
+    static synchronized void drain() {
+        if (EXECUTOR.isShutdown()) {
+            return;
+        }
+        for (String jobId : new ArrayList<>(PENDING.keySet())) {
+            PendingJob job = PENDING.remove(jobId);
+            if (job != null) {
+                JOBS.incrementAndGet();
+                schedule(job, 0, 0);
+            }
+        }
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                List<Runnable> abandoned = EXECUTOR.shutdownNow();
+                LOGGER.error("Saucelabs job updates did not finish within " + DRAIN_TIMEOUT_SECONDS
+                        + " seconds, abandoned " + abandoned.size() + " request(s)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logMetrics();
+    }
+
+    private static void logMetrics() {
+        if (JOBS.get() == 0) {
+            return;
+        }
+        long requests = Math.max(REQUESTS.get(), 1);
+        LOGGER.info("Saucelabs job updates: " + JOBS.get() + " job(s), " + FIELD_UPDATES.get()
+                + " field update(s) sent in " + REQUESTS.get() + " request(s), retried: " + RETRIED.get() + ", failed: " + FAILED.get()
+                + ", avg/max rate limit wait ms: " + TimeUnit.NANOSECONDS.toMillis(TOTAL_THROTTLE_NANOS.get() / requests)
+                + "/" + TimeUnit.NANOSECONDS.toMillis(MAX_THROTTLE_NANOS.get()));
+    }
+
+    /**
+     * Runs {@link #send(PendingJob, int)} after a delay on the pool, or on the calling thread once the pool is shut
+     * down.
+     */
+    private static void schedule(PendingJob job, int attempt, long delayMillis) {
+        if (!EXECUTOR.isShutdown()) {
+            try {
+                EXECUTOR.schedule(() -> send(job, attempt), delayMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                //shut down in the meantime
+            }
+        }
+        sleep(delayMillis);
+        send(job, attempt);
+    }
+
+    private static void send(PendingJob job, int attempt) {
+        long throttledNanos = LIMITER.reserve();
+        sleep(TimeUnit.NANOSECONDS.toMillis(throttledNanos));
+        TOTAL_THROTTLE_NANOS.addAndGet(throttledNanos);
+        MAX_THROTTLE_NANOS.accumulateAndGet(throttledNanos, Math::max);
+        REQUESTS.incrementAndGet();
+        Map<String, Object> fields;
+        synchronized (job.fields) {
+            fields = new HashMap<>(job.fields);
+        }
+        try {
+            job.client.updateJob(job.jobId, fields);
+        } catch (IOException e) {
+            boolean retryable = !(e instanceof SauceRestClient.StatusException)
+                    || ((SauceRestClient.StatusException) e).isRetryable();
+            if (retryable && attempt < RETRIES) {
+                RETRIED.incrementAndGet();
+                LOGGER.debug("Retrying Saucelabs update of job " + job.jobId + " after: " + e.getMessage());
+                schedule(job, attempt + 1, backoffMillis(attempt, e));
+            } else {
+                fail(job, e);
+            }
+        } catch (RuntimeException e) {
+            fail(job, e);
+        }
+    }
+
+    private static void fail(PendingJob job, Exception e) {
+        FAILED.incrementAndGet();
+        LOGGER.warn("Could not update Saucelabs job " + job.jobId + " with " + job.fields + ": " + e.getMessage());
+    }
+
+    /**
+     * Returns the Retry-After delay if Saucelabs sent one, else an exponential backoff with jitter.
+     */
+    private static long backoffMillis(int attempt, IOException e) {
+        if (e instanceof SauceRestClient.StatusException) {
+            long retryAfter = ((SauceRestClient.StatusException) e).getRetryAfterMillis();
+            if (retryAfter > 0) {
+                return Math.min(retryAfter, MAX_BACKOFF_MILLIS);
+            }
+        }
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(attempt, 16));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fields of one job waiting to be sent.
+     */
+    private static final class PendingJob {
+
+        private final SauceRestClient client;
+        private final String jobId;
+        private final Map<String, Object> fields = Collections.synchronizedMap(new HashMap<>());
+
+        private PendingJob(SauceRestClient client, String jobId) {
+            this.client = client;
+            this.jobId = jobId;
+        }
+    }
+
+    /**
+     * Token bucket rate limiter. Callers reserve a token and wait outside the lock until it is due, so waiting callers
+     * are released one interval apart. A rate of zero or less disables limiting.
+     */
+    static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens; //guarded by this
+        private long lastRefillNanos = System.nanoTime(); //guarded by this
+
+        TokenBucket(double perSecond, double capacity) {
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+        }
+
+        /**
+         * Takes a token, returning how many nanoseconds the caller must wait before using it.
+         */
+        synchronized long reserve() {
+            if (tokensPerNano <= 0) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) (-tokens / tokensPerNano);
+        }
+    }
+}
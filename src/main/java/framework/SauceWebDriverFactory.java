@@ -5,17 +5,13 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.Objects;
 
-import static framework.Constants.MICROSOFTEDGE_NO_SPACE_CHAR;
-import static framework.Constants.MICROSOFT_EDGE_BROWSER;
-
 class SauceWebDriverFactory {
 
     /**
-     * Creates a {@link WebDriver} for Saucelabs and initializes a thread-safe instance of {@link SauceService}.
+     * Creates a {@link WebDriver} on Saucelabs, or on another endpoint of {@link RemoteEndpointRegistry}, and
+     * initializes a thread-safe instance of {@link SauceService} if the session runs on Saucelabs.
      *
      * @param sauceVars {@link ISauceVars} implementation.
      * @param scenario  {@link Scenario} Cucumber scenario being executed.
@@ -28,28 +24,15 @@ class SauceWebDriverFactory {
         String version = Objects.requireNonNull(sauceVars.getVersion(), "Missing Saucelabs browser version");
         String platform = Objects.requireNonNull(sauceVars.getPlatform(), "Missing Saucelabs browser platform");
 
-        // Sauce requires "internet explorer" for IE, but "microsoftedge" for MS Edge, adding this to avoid errors with the spacing
-        if (browser.equalsIgnoreCase(MICROSOFT_EDGE_BROWSER)) {
-            browser = MICROSOFTEDGE_NO_SPACE_CHAR;
-        }
-        DesiredCapabilities capabilities = new DesiredCapabilities();
-        capabilities.setBrowserName(browser);
-        capabilities.setCapability("version", version);
-        capabilities.setCapability("platform", platform);
+        DesiredCapabilities capabilities = new DesiredCapabilities(
+                RunConfig.get().getSauceCapabilities(browser, version, platform));
         capabilities.setCapability("name", scenario.getName());
 
-        RemoteWebDriver remoteWebDriver;
-        try {
-            String sauceUrl = "http://" + username + ":" + apiKey + "@ondemand.saucelabs.com:80/wd/hub";
-
-            remoteWebDriver = new RemoteWebDriver(new URL(sauceUrl), capabilities);
-        } catch (MalformedURLException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+        RemoteWebDriver remoteWebDriver = RemoteEndpointRegistry.createSession(sauceVars, capabilities);
+        if (RemoteEndpointRegistry.isSauce(remoteWebDriver)) {
+            SauceService sauceService = new SauceService(username, apiKey, remoteWebDriver.getSessionId(), scenario);
+            SauceServiceManager.setSauceService(sauceService);
         }
-
-        SauceService sauceService = new SauceService(username, apiKey, remoteWebDriver.getSessionId());
-        SauceServiceManager.setSauceService(sauceService);
         return remoteWebDriver;
     }
 }
@@ -0,0 +1,205 @@
+package framework;
+
+import gherkin.events.PickleEvent;
+import gherkin.pickles.PickleLocation;
+import io.cucumber.testng.PickleEventWrapper;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static framework.Constants.ENV_SCENARIO_DEFAULT_ESTIMATE_MILLIS;
+import static framework.Constants.ENV_SCENARIO_HISTORY_FILE;
+
+/**
+ * Recorded scenario durations per browser, persisted between runs in {@link #FILE}. Used to start the longest
+ * scenarios first so a slow scenario picked up last does not set the suite's wall-clock time.
+ */
+final class ScenarioHistory {
+
+    private static final Logger LOGGER = LoggerService.getLogger(ScenarioHistory.class);
+    private static final Path FILE =
+            Paths.get(EnvVars.getString(ENV_SCENARIO_HISTORY_FILE, ".bdd-framework/scenario-history.properties"));
+    private static final long FALLBACK_ESTIMATE_MILLIS = 60_000;
+    private static final String KEY_SEPARATOR = "|";
+    private static final Path FEATURES_ROOT = Paths.get(Constants.FEATURES_DIRECTORY).toAbsolutePath().normalize();
+    private static final Path WORKING_DIRECTORY = Paths.get("").toAbsolutePath();
+    private static final ConcurrentMap<String, Long> DURATIONS = load();
+    private static final boolean LOADED = !DURATIONS.isEmpty();
+    private static final ConcurrentMap<String, Long> DEFAULT_ESTIMATES = new ConcurrentHashMap<>();
+
+    private ScenarioHistory() {}
+
+    /**
+     * Returns a stable id for a scenario: its feature file path and line, see {@link #featurePath(String)}. Scenario
+     * outline examples use the line of their example row.
+     *
+     * @param pickleEvent {@link PickleEvent} of the scenario.
+     * @return String scenario id.
+     */
+    static String scenarioId(PickleEvent pickleEvent) {
+        List<PickleLocation> locations = pickleEvent.pickle.getLocations();
+        return featurePath(pickleEvent.uri) + ":" + locations.get(locations.size() - 1).getLine();
+    }
+
+    /**
+     * Returns a feature file's path relative to {@link Constants#FEATURES_DIRECTORY}, or to the working directory for
+     * features outside of it, with / separators. The path is the same on every machine, whether Cucumber was given
+     * relative or absolute paths. Classpath features keep their classpath path.
+     *
+     * @param uri Feature file URI of a {@link PickleEvent}.
+     * @return String feature file path.
+     */
+    static String featurePath(String uri) {
+        Path file;
+        try {
+            URI parsed = new URI(uri);
+            if ("classpath".equals(parsed.getScheme())) {
+                return parsed.getSchemeSpecificPart();
+            }
+            if ("file".equals(parsed.getScheme())) {
+                file = parsed.isOpaque() ? Paths.get(parsed.getSchemeSpecificPart()) : Paths.get(parsed);
+            } else {
+                file = Paths.get(uri);
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            file = Paths.get(uri);
+        }
+        file = file.toAbsolutePath().normalize();
+        if (file.startsWith(FEATURES_ROOT)) {
+            file = FEATURES_ROOT.relativize(file);
+        } else if (file.startsWith(WORKING_DIRECTORY)) {
+            file = WORKING_DIRECTORY.relativize(file);
+        }
+        return file.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Returns True if scenario durations were loaded from {@link #FILE}.
+     *
+     * @return Boolean true or false.
+     */
+    static boolean isLoaded() {
+        return LOADED;
+    }
+
+    /**
+     * Records the duration of a scenario run. Durations are smoothed with the previously recorded value.
+     *
+     * @param scenarioId     Id from {@link #scenarioId(PickleEvent)}.
+     * @param browser        Browser the scenario ran on.
+     * @param durationMillis How long the scenario took.
+     */
+    static void record(String scenarioId, String browser, long durationMillis) {
+        DURATIONS.merge(key(scenarioId, browser), durationMillis, (previous, latest) -> (previous + latest) / 2);
+    }
+
+    /**
+     * Returns the expected duration of a scenario. Scenarios without history use
+     * {@link Constants#ENV_SCENARIO_DEFAULT_ESTIMATE_MILLIS}, or the average of the browser's known durations if that is
+     * not set.
+     *
+     * @param scenarioId Id from {@link #scenarioId(PickleEvent)}.
+     * @param browser    Browser the scenario will run on.
+     * @return long estimated duration in milliseconds.
+     */
+    static long estimateMillis(String scenarioId, String browser) {
+        Long recorded = DURATIONS.get(key(scenarioId, browser));
+        return recorded != null ? recorded : defaultEstimateMillis(browser);
+    }
+
+    /**
+     * Returns the Cucumber data provider rows ordered longest expected duration first. Each row's first element must be
+     * a {@link PickleEventWrapper}.
+     *
+     * @param scenarios Data provider rows.
+     * @param browser   Browser the scenarios will run on.
+     * @return The rows, reordered.
+     */
+    static Object[][] longestFirst(Object[][] scenarios, String browser) {
+        Map<Object[], Long> estimates = new IdentityHashMap<>();
+        for (Object[] row : scenarios) {
+            estimates.put(row, estimateMillis(scenarioId(((PickleEventWrapper) row[0]).getPickleEvent()), browser));
+        }
+        Object[][] sorted = scenarios.clone();
+        Arrays.sort(sorted, Comparator.comparing((Object[] row) -> estimates.get(row)).reversed()); //stable
+        return sorted;
+    }
+
+    /**
+     * Writes the recorded durations to {@link #FILE}, replacing it atomically.
+     */
+    static synchronized void save() {
+        Properties properties = new Properties();
+        DURATIONS.forEach((key, millis) -> properties.setProperty(key, String.valueOf(millis)));
+        try {
+            Path parent = FILE.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, FILE.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                properties.store(os, "Scenario durations in milliseconds, keyed by browser|scenario");
+            }
+            Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.debug(Messaging.createdFile(FILE.toString()));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save scenario history to " + FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the estimate for scenarios without history on a browser. Computed once per browser, from the history
+     * loaded at startup.
+     */
+    private static long defaultEstimateMillis(String browser) {
+        return DEFAULT_ESTIMATES.computeIfAbsent(String.valueOf(browser), b -> {
+            long configured = EnvVars.getLong(ENV_SCENARIO_DEFAULT_ESTIMATE_MILLIS, -1);
+            if (configured >= 0) {
+                return configured;
+            }
+            String prefix = b + KEY_SEPARATOR;
+            return (long) DURATIONS.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefix))
+                    .mapToLong(Map.Entry::getValue)
+                    .average()
+                    .orElse(FALLBACK_ESTIMATE_MILLIS);
+        });
+    }
+
+    private static String key(String scenarioId, String browser) {
+        return browser + KEY_SEPARATOR + scenarioId;
+    }
+
+    private static ConcurrentMap<String, Long> load() {
+        ConcurrentMap<String, Long> durations = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(FILE)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(FILE)) {
+            properties.load(is);
+            for (String key : properties.stringPropertyNames()) {
+                durations.put(key, Long.parseLong(properties.getProperty(key)));
+            }
+            LOGGER.debug("Loaded " + durations.size() + " scenario durations from " + FILE);
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Ignoring unreadable scenario history " + FILE + ": " + e.getMessage());
+        }
+        return durations;
+    }
+}
@@ -0,0 +1,63 @@
+package framework;
+
+import io.cucumber.testng.PickleEventWrapper;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import org.testng.TestListenerAdapter;
+
+/**
+ * Records how long each scenario took on each browser into {@link ScenarioHistory}, and saves the history when the
+ * suite finishes.
+ */
+public class ScenarioHistoryListener extends TestListenerAdapter implements ISuiteListener {
+
+    /**
+     * Executes when a {@link org.testng.TestNG} suite starts.
+     *
+     * @param suite {@link ISuite} from overridden method of {@link ISuiteListener}.
+     */
+    @Override
+    public void onStart(ISuite suite) {
+    }
+
+    /**
+     * Executes when a {@link org.testng.TestNG} suite finishes. Saves the {@link ScenarioHistory}.
+     *
+     * @param suite {@link ISuite} from overridden method of {@link ISuiteListener}.
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        ScenarioHistory.save();
+    }
+
+    /**
+     * Executes when a {@link org.testng.TestNG} test succeeds.
+     *
+     * @param testResult {@link ITestResult} from overridden method of {@link TestListenerAdapter}.
+     */
+    @Override
+    public void onTestSuccess(ITestResult testResult) {
+        record(testResult);
+    }
+
+    /**
+     * Executes when a {@link org.testng.TestNG} test fails.
+     *
+     * @param testResult {@link ITestResult} from overridden method of {@link TestListenerAdapter}.
+     */
+    @Override
+    public void onTestFailure(ITestResult testResult) {
+        record(testResult);
+    }
+
+    private void record(ITestResult testResult) {
+        Object[] parameters = testResult.getParameters();
+        if (parameters.length == 0 || !(parameters[0] instanceof PickleEventWrapper)) {
+            return;
+        }
+        String scenarioId = ScenarioHistory.scenarioId(((PickleEventWrapper) parameters[0]).getPickleEvent());
+        String browser = testResult.getTestContext().getCurrentXmlTest().getParameter(ParallelSuite.BROWSER_PARAM);
+        ScenarioHistory.record(scenarioId, browser, testResult.getEndMillis() - testResult.getStartMillis());
+    }
+}
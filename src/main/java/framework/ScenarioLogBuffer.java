@@ -0,0 +1,194 @@
+package framework;
+
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log4j appender keeping the last events of each running scenario in memory, down to TRACE, configured in log4j2.xml.
+ * A scenario's events are written to a file under target/failed-scenario-logs only if it fails, so passing scenarios
+ * do no log I/O for their detail. The failed scenario's log is also attached to its Extent test by
+ * {@link ParallelReportingListener}.
+ * <p>
+ * Events are kept by the scenario run id of {@link ScenarioLogContext}, so lines logged for the scenario on other
+ * threads are kept too. Events logged outside a scenario, or after it ended, such as by its background teardown, are
+ * ignored.
+ */
+@Plugin(name = "ScenarioLogBuffer", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE)
+public final class ScenarioLogBuffer extends AbstractAppender {
+
+    private static final Path DIRECTORY = Paths.get("target/failed-scenario-logs");
+    private static final String DEFAULT_PATTERN = "%d{HH:mm:ss.SSS} [%-5level] [%t] %c{1} - %m%n";
+    private static final ConcurrentMap<String, Ring> RINGS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> FAILED_LOG = new ThreadLocal<>();
+    private static final AtomicLong SCENARIOS = new AtomicLong();
+    private static final AtomicLong DROPPED_EVENTS = new AtomicLong();
+    private static final AtomicLong WRITTEN = new AtomicLong();
+    private static volatile int size = 2000;
+    private static volatile Layout<? extends Serializable> layout = PatternLayout.newBuilder()
+            .withPattern(DEFAULT_PATTERN).build();
+
+    private ScenarioLogBuffer(String name, Filter filter, Layout<? extends Serializable> layout) {
+        super(name, filter, layout, true, Property.EMPTY_ARRAY);
+    }
+
+    /**
+     * Creates the appender from log4j2.xml.
+     *
+     * @param name   Appender name.
+     * @param size   Number of events kept per scenario, the oldest are dropped first.
+     * @param layout {@link Layout} of the written lines, defaults to {@link #DEFAULT_PATTERN}.
+     * @param filter Optional {@link Filter}.
+     * @return {@link ScenarioLogBuffer} object.
+     */
+    @PluginFactory
+    public static ScenarioLogBuffer createAppender(@PluginAttribute("name") String name,
+                                                   @PluginAttribute(value = "size", defaultInt = 2000) int size,
+                                                   @PluginElement("Layout") Layout<? extends Serializable> layout,
+                                                   @PluginElement("Filter") Filter filter) {
+        if (size <= 0) {
+            StatusLogger.getLogger().error("ScenarioLogBuffer size must be positive, was " + size);
+            return null;
+        }
+        ScenarioLogBuffer.size = size;
+        if (layout != null) {
+            ScenarioLogBuffer.layout = layout;
+        }
+        return new ScenarioLogBuffer(name, filter, ScenarioLogBuffer.layout);
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String run = event.getContextData().getValue(ScenarioLogContext.SCENARIO_RUN);
+        if (run == null) {
+            return;
+        }
+        Ring ring = RINGS.get(run);
+        if (ring != null) {
+            ring.add(event.toImmutable());
+        }
+    }
+
+    /**
+     * Starts keeping the events of a scenario run.
+     *
+     * @param run      Scenario run id, see {@link ScenarioLogContext}.
+     * @param fileName Name of the file written if the scenario fails, without extension.
+     */
+    static void open(String run, String fileName) {
+        RINGS.put(run, new Ring(size, fileName));
+        SCENARIOS.incrementAndGet();
+    }
+
+    /**
+     * Stops keeping the events of a scenario run. If it failed they are written to a file, and kept for
+     * {@link #takeFailedLog()} on the calling thread.
+     *
+     * @param run    Scenario run id, see {@link ScenarioLogContext}.
+     * @param failed True if the scenario failed.
+     */
+    static void close(String run, boolean failed) {
+        FAILED_LOG.remove();
+        Ring ring = RINGS.remove(run);
+        if (ring == null || !failed) {
+            return;
+        }
+        String log = ring.format();
+        FAILED_LOG.set(log);
+        Path file = DIRECTORY.resolve(ring.fileName + ".log");
+        try {
+            Files.createDirectories(DIRECTORY);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(log);
+            }
+            WRITTEN.incrementAndGet();
+            StatusLogger.getLogger().debug("Wrote failed scenario log " + file);
+        } catch (IOException e) {
+            StatusLogger.getLogger().error("Could not write failed scenario log " + file, e);
+        }
+    }
+
+    /**
+     * Returns the log of the last scenario that failed on the calling thread, once, or null if there is none.
+     *
+     * @return String log lines.
+     */
+    static String takeFailedLog() {
+        String log = FAILED_LOG.get();
+        FAILED_LOG.remove();
+        return log;
+    }
+
+    /**
+     * Logs how many scenarios were buffered and how many failed scenario logs were written.
+     */
+    static void logSummary() {
+        if (SCENARIOS.get() == 0) {
+            return;
+        }
+        //not a static LOGGER, the appender is created while Log4j is being configured
+        LoggerService.getLogger(ScenarioLogBuffer.class).info("Scenario log buffer (" + size
+                + " events per scenario) scenarios: " + SCENARIOS.get() + ", failed scenario logs written: "
+                + WRITTEN.get() + ", events dropped from full buffers: " + DROPPED_EVENTS.get());
+    }
+
+    /**
+     * The last events of one scenario run, overwriting the oldest when full.
+     */
+    static final class Ring {
+
+        private final LogEvent[] events;
+        private final String fileName;
+        private int next; //guarded by this
+        private long count; //guarded by this
+
+        Ring(int size, String fileName) {
+            this.events = new LogEvent[size];
+            this.fileName = fileName;
+        }
+
+        synchronized void add(LogEvent event) {
+            if (count >= events.length) {
+                DROPPED_EVENTS.incrementAndGet();
+            }
+            events[next] = event;
+            next = (next + 1) % events.length;
+            count++;
+        }
+
+        synchronized String format() {
+            StringBuilder log = new StringBuilder();
+            if (count > events.length) {
+                log.append("... ").append(count - events.length).append(" earlier event(s) dropped\n");
+            }
+            int kept = (int) Math.min(count, events.length);
+            int first = count > events.length ? next : 0;
+            for (int i = 0; i < kept; i++) {
+                log.append(new String(layout.toByteArray(events[(first + i) % events.length]),
+                        StandardCharsets.UTF_8));
+            }
+            return log.toString();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package framework;
+
+import io.cucumber.core.api.Scenario;
+import org.apache.logging.log4j.ThreadContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static framework.Constants.ENV_SCENARIO_LOG_FILES;
+
+/**
+ * Puts the running scenario's id, browser and WebDriver session id in the Log4j {@link ThreadContext} of the thread
+ * running it, so every log line can be traced back to its scenario. log4j2.xml prints them on each console line.
+ * <p>
+ * If {@link Constants#ENV_SCENARIO_LOG_FILES} is true, each scenario's lines are also written to their own file under
+ * target/scenario-logs. Each scenario's latest lines are kept in memory by {@link ScenarioLogBuffer}, and written to
+ * a file only if it fails.
+ */
+final class ScenarioLogContext {
+
+    static final String SCENARIO_ID = "scenarioId";
+    static final String BROWSER = "browser";
+    static final String SESSION_ID = "sessionId";
+    static final String SCENARIO_LOG = "scenarioLog";
+    static final String SCENARIO_RUN = "scenarioRun";
+    private static final String[] KEYS = {SCENARIO_ID, BROWSER, SESSION_ID, SCENARIO_LOG, SCENARIO_RUN};
+    private static final boolean LOG_FILES = EnvVars.getBoolean(ENV_SCENARIO_LOG_FILES, false);
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    static {
+        //ScenarioLogBuffer is created while Log4j is being configured, so its summary is registered here
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log scenario log buffer summary",
+                ScenarioLogBuffer::logSummary);
+    }
+
+    private ScenarioLogContext() {}
+
+    /**
+     * Sets the context of a scenario starting on the calling thread.
+     *
+     * @param scenario {@link Scenario} being executed.
+     * @param key      {@link SessionKey} of the scenario's session.
+     */
+    static void start(Scenario scenario, SessionKey key) {
+        String scenarioId = getScenarioId(scenario);
+        int run = SEQUENCE.incrementAndGet();
+        String fileName = String.format("%04d-%s-%s", run, scenarioId, key.getBrowser())
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+        ThreadContext.put(SCENARIO_ID, scenarioId);
+        ThreadContext.put(BROWSER, key.getBrowser());
+        ThreadContext.put(SCENARIO_RUN, String.valueOf(run));
+        ThreadContext.remove(SESSION_ID);
+        if (LOG_FILES) {
+            ThreadContext.put(SCENARIO_LOG, fileName);
+        }
+        ScenarioLogBuffer.open(String.valueOf(run), fileName);
+    }
+
+    /**
+     * Adds the session id of a scenario's {@link WebDriver} to the calling thread's context.
+     *
+     * @param webDriver {@link WebDriver} of the running scenario.
+     */
+    static void setSessionId(WebDriver webDriver) {
+        while (webDriver instanceof WrapsDriver && !(webDriver instanceof RemoteWebDriver)) {
+            webDriver = ((WrapsDriver) webDriver).getWrappedDriver();
+        }
+        if (webDriver instanceof RemoteWebDriver) {
+            SessionId sessionId = ((RemoteWebDriver) webDriver).getSessionId();
+            if (sessionId != null) {
+                ThreadContext.put(SESSION_ID, sessionId.toString());
+            }
+        }
+    }
+
+    /**
+     * Removes the scenario context, and only it, from the calling thread once its scenario has finished, writing the
+     * scenario's buffered log lines to a file if it failed, see {@link ScenarioLogBuffer}.
+     *
+     * @param failed True if the scenario failed.
+     */
+    static void end(boolean failed) {
+        String run = ThreadContext.get(SCENARIO_RUN);
+        if (run != null) {
+            ScenarioLogBuffer.close(run, failed);
+        }
+        ThreadContext.removeAll(Arrays.asList(KEYS));
+    }
+
+    /**
+     * Returns a {@link Runnable} that runs a task with the calling thread's scenario context, for work handed off to
+     * another thread on behalf of the scenario, such as its teardown. Other keys of the {@link ThreadContext} are left
+     * as they are on the thread running the task.
+     *
+     * @param task {@link Runnable} to run.
+     * @return {@link Runnable} object.
+     */
+    static Runnable wrap(Runnable task) {
+        if (!ThreadContext.containsKey(SCENARIO_RUN)) {
+            return task;
+        }
+        String[] context = values();
+        return () -> {
+            String[] previous = values(); //the task may run on the calling thread
+            put(context);
+            try {
+                task.run();
+            } finally {
+                put(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the calling thread's values of {@link #KEYS}, null for those not set.
+     */
+    private static String[] values() {
+        String[] values = new String[KEYS.length];
+        for (int i = 0; i < KEYS.length; i++) {
+            values[i] = ThreadContext.get(KEYS[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Sets the calling thread's values of {@link #KEYS}, removing those that are null.
+     */
+    private static void put(String[] values) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (values[i] == null) {
+                ThreadContext.remove(KEYS[i]);
+            } else {
+                ThreadContext.put(KEYS[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the feature file name and line of a scenario, e.g. login.feature:12.
+     */
+    private static String getScenarioId(Scenario scenario) {
+        String id = scenario.getId();
+        return id.substring(id.lastIndexOf('/') + 1);
+    }
+}
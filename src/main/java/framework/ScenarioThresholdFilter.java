@@ -0,0 +1,131 @@
+package framework;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.apache.logging.log4j.message.Message;
+
+/**
+ * Log4j filter configured for the whole configuration in log4j2.xml. The root logger is at TRACE so
+ * {@link ScenarioLogBuffer} gets every event of a running scenario, but outside a scenario nothing below the console's
+ * level would be written anywhere. This filter rejects those calls before a log event is created, and lets every call
+ * made with a {@link ScenarioLogContext} through.
+ */
+@Plugin(name = "ScenarioThresholdFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE,
+        printObject = true)
+public final class ScenarioThresholdFilter extends AbstractFilter {
+
+    private final Level level;
+
+    private ScenarioThresholdFilter(Level level) {
+        super(Result.NEUTRAL, Result.DENY);
+        this.level = level;
+    }
+
+    /**
+     * Creates the filter from log4j2.xml.
+     *
+     * @param level Lowest {@link Level} let through outside a scenario, defaults to TRACE.
+     * @return {@link ScenarioThresholdFilter} object.
+     */
+    @PluginFactory
+    public static ScenarioThresholdFilter createFilter(@PluginAttribute("level") Level level) {
+        return new ScenarioThresholdFilter(level == null ? Level.TRACE : level);
+    }
+
+    private Result filter(Level eventLevel) {
+        return eventLevel.isMoreSpecificThan(level) || ThreadContext.containsKey(ScenarioLogContext.SCENARIO_RUN)
+                ? onMatch : onMismatch;
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        return event.getLevel().isMoreSpecificThan(level)
+                || event.getContextData().containsKey(ScenarioLogContext.SCENARIO_RUN) ? onMatch : onMismatch;
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, Message msg, Throwable t) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, Object msg, Throwable t) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object... params) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3, Object p4) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3, Object p4, Object p5) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3, Object p4, Object p5, Object p6) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3, Object p4, Object p5, Object p6, Object p7) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3, Object p4, Object p5, Object p6, Object p7, Object p8) {
+        return filter(level);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+                         Object p3, Object p4, Object p5, Object p6, Object p7, Object p8, Object p9) {
+        return filter(level);
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + level;
+    }
+}
@@ -0,0 +1,58 @@
+package framework;
+
+import org.openqa.selenium.By;
+
+/**
+ * A {@link By} locator translated for lookup by injected JavaScript. Only locators whose first match the page can find
+ * exactly as WebDriver does are supported: id, name, class name, tag name, CSS selector and XPath.
+ */
+final class ScriptLocator {
+
+    private final String strategy;
+    private final String value;
+
+    private ScriptLocator(String strategy, String value) {
+        this.strategy = strategy;
+        this.value = value;
+    }
+
+    /**
+     * Returns the {@link ScriptLocator} for a {@link By}, or null if the locator type is not supported.
+     *
+     * @param locator {@link By} locator.
+     * @return {@link ScriptLocator} or null.
+     */
+    static ScriptLocator of(By locator) {
+        if (locator instanceof By.ById) {
+            return fromToString(locator, "id");
+        } else if (locator instanceof By.ByName) {
+            return fromToString(locator, "name");
+        } else if (locator instanceof By.ByClassName) {
+            return fromToString(locator, "className");
+        } else if (locator instanceof By.ByTagName) {
+            return fromToString(locator, "tagName");
+        } else if (locator instanceof By.ByCssSelector) {
+            return fromToString(locator, "cssSelector");
+        } else if (locator instanceof By.ByXPath) {
+            return fromToString(locator, "xpath");
+        }
+        return null;
+    }
+
+    String getStrategy() {
+        return strategy;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Selenium's locator classes only expose their value through toString, e.g. "By.cssSelector: .menu".
+     */
+    private static ScriptLocator fromToString(By locator, String strategy) {
+        String prefix = "By." + strategy + ": ";
+        String string = locator.toString();
+        return string.startsWith(prefix) ? new ScriptLocator(strategy, string.substring(prefix.length())) : null;
+    }
+}
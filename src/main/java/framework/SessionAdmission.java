@@ -0,0 +1,186 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static framework.Constants.ENV_MAX_SESSIONS;
+
+/**
+ * Limits how many scenarios hold a browser session at once, across all browsers ({@link Constants#ENV_MAX_SESSIONS})
+ * and per browser ({@link Constants#ENV_MAX_SESSIONS} + "_" + browser, e.g. MAX_SESSIONS_SAFARI or
+ * MAX_SESSIONS_INTERNET_EXPLORER). Waiting scenarios are admitted in arrival order. A permit is held for as long as
+ * its browser is open: from session creation until the session is quit, including while a pooled session waits idle
+ * in {@link SessionPool}. Local sessions are also limited by {@link AdaptiveConcurrency} while it is enabled.
+ */
+final class SessionAdmission {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SessionAdmission.class);
+    private static final Limit GLOBAL = new Limit("all browsers", EnvVars.getInt(ENV_MAX_SESSIONS, Integer.MAX_VALUE));
+    private static final Map<String, Limit> BROWSER_LIMITS = new ConcurrentHashMap<>();
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log session admission metrics",
+                SessionAdmission::logMetrics);
+    }
+
+    private SessionAdmission() {}
+
+    /**
+     * Blocks until a session for the {@link SessionKey} may be opened. The browser limit is taken before the global
+     * one, so a scenario waiting on a busy browser does not hold a global slot.
+     *
+     * @param key {@link SessionKey} of the session to open.
+     * @return {@link Permit} to release once the session is quit.
+     */
+    static Permit acquire(SessionKey key) {
+        return tryAcquire(key, Long.MAX_VALUE, System.nanoTime());
+    }
+
+    /**
+     * Takes a permit for a session of the {@link SessionKey} if one is free within a timeout.
+     *
+     * @param key          {@link SessionKey} of the session to open.
+     * @param timeoutNanos Most nanoseconds to wait, 0 to not wait.
+     * @param sinceNanos   {@link System#nanoTime()} the caller started waiting at, for the wait time metrics.
+     * @return {@link Permit} to release once the session is quit, or null if none was free in time.
+     */
+    static Permit tryAcquire(SessionKey key, long timeoutNanos, long sinceNanos) {
+        long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        Limit browserLimit = BROWSER_LIMITS.computeIfAbsent(key.getBrowser(), SessionAdmission::browserLimit);
+        if (!browserLimit.tryAcquire(remaining(deadline))) {
+            return null;
+        }
+        if (!GLOBAL.tryAcquire(remaining(deadline))) {
+            browserLimit.cancel();
+            return null;
+        }
+        boolean adaptive = AdaptiveConcurrency.isEnabled() && isLocal(key);
+        if (adaptive && !AdaptiveConcurrency.tryAcquire(remaining(deadline))) {
+            GLOBAL.cancel();
+            browserLimit.cancel();
+            return null;
+        }
+        long waited = System.nanoTime() - sinceNanos;
+        browserLimit.acquired(waited);
+        GLOBAL.acquired(waited);
+        return new Permit(browserLimit, adaptive);
+    }
+
+    /**
+     * Logs wait time and utilization for the global and each browser's limit.
+     */
+    static void logMetrics() {
+        GLOBAL.logMetrics();
+        BROWSER_LIMITS.values().forEach(Limit::logMetrics);
+    }
+
+    private static long remaining(long deadline) {
+        return deadline == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static boolean isLocal(SessionKey key) {
+        return key.getDriverMode() == DriverFactory.DriverMode.LOCAL
+                || key.getDriverMode() == DriverFactory.DriverMode.LOCAL_PARALLEL_SUITE;
+    }
+
+    private static Limit browserLimit(String browser) {
+        String envName = ENV_MAX_SESSIONS + "_" + browser.replace(' ', '_');
+        return new Limit(browser, EnvVars.getInt(envName, Integer.MAX_VALUE));
+    }
+
+    /**
+     * A held session slot. Releasing more than once has no effect.
+     */
+    static final class Permit {
+
+        private final Limit browserLimit;
+        private final boolean adaptive;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Limit browserLimit, boolean adaptive) {
+            this.browserLimit = browserLimit;
+            this.adaptive = adaptive;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                if (adaptive) {
+                    AdaptiveConcurrency.release();
+                }
+                GLOBAL.release();
+                browserLimit.release();
+            }
+        }
+    }
+
+    /**
+     * A fair {@link Semaphore} with wait time and utilization metrics.
+     */
+    private static final class Limit {
+
+        private final String name;
+        private final int capacity;
+        private final Semaphore semaphore;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicInteger peakInUse = new AtomicInteger();
+        private final AtomicLong acquisitions = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private Limit(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+            this.semaphore = new Semaphore(capacity, true);
+        }
+
+        /**
+         * Takes a slot if one is free within the timeout. The slot is counted once the whole permit is taken, see
+         * {@link #acquired(long)}, or handed back with {@link #cancel()}.
+         */
+        private boolean tryAcquire(long timeoutNanos) {
+            try {
+                return semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while waiting for a session slot for " + name, e);
+            }
+        }
+
+        private void acquired(long waitedNanos) {
+            acquisitions.incrementAndGet();
+            totalWaitNanos.addAndGet(waitedNanos);
+            maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+            peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+        }
+
+        private void cancel() {
+            semaphore.release();
+        }
+
+        private void release() {
+            inUse.decrementAndGet();
+            semaphore.release();
+        }
+
+        private void logMetrics() {
+            if (acquisitions.get() == 0) {
+                return;
+            }
+            String cap = capacity == Integer.MAX_VALUE ? "unlimited" : String.valueOf(capacity);
+            String utilization = capacity == Integer.MAX_VALUE ? "" : ", peak utilization: "
+                    + (100 * peakInUse.get() / capacity) + "%";
+            LOGGER.info("Session admission for " + name + " (cap " + cap + ") sessions: " + acquisitions.get()
+                    + ", peak in use: " + peakInUse.get() + utilization
+                    + ", avg/max wait ms: " + TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / acquisitions.get())
+                    + "/" + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        }
+    }
+}
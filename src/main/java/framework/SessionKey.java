@@ -0,0 +1,60 @@
+package framework;
+
+import java.util.Objects;
+
+/**
+ * Identifies the kind of browser session a scenario needs. Sessions are only interchangeable when their keys are equal.
+ */
+final class SessionKey {
+
+    private final String browser;
+    private final String version;
+    private final String platform;
+    private final DriverFactory.DriverMode driverMode;
+
+    SessionKey(String browser, String version, String platform, DriverFactory.DriverMode driverMode) {
+        this.browser = Objects.requireNonNull(browser, "Session browser cannot be null").toUpperCase();
+        this.version = version == null ? "" : version;
+        this.platform = platform == null ? "" : platform;
+        this.driverMode = Objects.requireNonNull(driverMode, "Session driver mode cannot be null");
+    }
+
+    String getBrowser() {
+        return browser;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    String getPlatform() {
+        return platform;
+    }
+
+    DriverFactory.DriverMode getDriverMode() {
+        return driverMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionKey)) {
+            return false;
+        }
+        SessionKey other = (SessionKey) o;
+        return browser.equals(other.browser) && version.equals(other.version) && platform.equals(other.platform)
+                && driverMode == other.driverMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(browser, version, platform, driverMode);
+    }
+
+    @Override
+    public String toString() {
+        return driverMode + "[" + browser + " " + version + " " + platform + "]";
+    }
+}
@@ -0,0 +1,411 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static framework.Constants.ENV_SESSION_POOL;
+import static framework.Constants.ENV_SESSION_POOL_MAX_AGE_SECONDS;
+import static framework.Constants.ENV_SESSION_POOL_MAX_USES;
+
+/**
+ * Keeps idle {@link WebDriver} sessions keyed by {@link SessionKey} so scenarios can reuse a browser instead of
+ * starting a new one. Sessions are reset when they are returned, and retired once they exceed
+ * {@link #MAX_USES} scenarios or {@link #MAX_AGE_NANOS}.
+ * <p>
+ * A reset clears the cookies and web storage of every origin the session visited, not only the loaded page's. Origins
+ * are recorded from the session's get commands and getCurrentUrl responses, by decorating its {@link CommandExecutor},
+ * and from the URL of each of its windows when it is returned. An origin only reached by a redirect or a link, and
+ * left again before any of those, is not known to the pool. A visited origin no window has open is cleared by loading
+ * {@link #ORIGIN_RESET_PATH} on it; a session with more than {@link #MAX_ORIGIN_RESET_LOADS} such origins is quit
+ * instead, as the loads would cost more than a new session.
+ * <p>
+ * Only local driver modes are pooled. A Saucelabs session is a Saucelabs job, which is named and marked
+ * passed/failed per scenario, so those sessions are always created fresh.
+ */
+final class SessionPool {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SessionPool.class);
+    private static final boolean ENABLED = EnvVars.getBoolean(ENV_SESSION_POOL, true);
+    private static final int MAX_USES = EnvVars.getInt(ENV_SESSION_POOL_MAX_USES, 50);
+    private static final long MAX_AGE_NANOS =
+            TimeUnit.SECONDS.toNanos(EnvVars.getLong(ENV_SESSION_POOL_MAX_AGE_SECONDS, 30 * 60));
+    private static final String RESET_STORAGE_SCRIPT =
+            "try { window.localStorage.clear(); } catch (e) {} try { window.sessionStorage.clear(); } catch (e) {}";
+    private static final long ADMISSION_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final String ORIGIN_RESET_PATH = "/robots.txt"; //a light page that is rarely redirected
+    private static final int MAX_ORIGIN_RESET_LOADS = 1;
+    private static final Map<SessionKey, Deque<PooledSession>> IDLE = new ConcurrentHashMap<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong RETIRED = new AtomicLong();
+    private static final AtomicLong EVICTED = new AtomicLong();
+    private static final AtomicLong ORIGIN_RESET_LOADS = new AtomicLong();
+    private static final AtomicLong RETIRED_FOR_ORIGINS = new AtomicLong();
+    private static final AtomicBoolean SHUT_DOWN = new AtomicBoolean();
+
+    static {
+        LOGGER.info("Session pool enabled: " + ENABLED + ", max uses: " + MAX_USES + ", max age seconds: "
+                + TimeUnit.NANOSECONDS.toSeconds(MAX_AGE_NANOS));
+        SuiteLifecycle.register(SuiteLifecycle.Phase.CLOSE_SESSIONS, "shut down session pool", SessionPool::shutdown);
+    }
+
+    private SessionPool() {}
+
+    /**
+     * Returns True if sessions for the {@link SessionKey} may be pooled.
+     *
+     * @param key {@link SessionKey} of the session.
+     * @return Boolean true or false.
+     */
+    static boolean accepts(SessionKey key) {
+        if (!ENABLED || SHUT_DOWN.get()) {
+            return false;
+        }
+        switch (key.getDriverMode()) {
+            case LOCAL:
+            case LOCAL_PARALLEL_SUITE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns an idle session for the {@link SessionKey}, or a new session from the factory if none is available. A new
+     * session is only created once {@link SessionAdmission} admits it. Idle sessions hold their admission permit, so
+     * while none is free an idle session of another key is quit to make room. If there is none, the pool is checked
+     * again every {@link #ADMISSION_RECHECK_NANOS} for a session returned in the meantime.
+     *
+     * @param key     {@link SessionKey} of the session.
+     * @param factory Creates a new {@link WebDriver} on a pool miss.
+     * @return A {@link Driver} that must be handed back through {@link #release(Driver)}.
+     */
+    static Driver borrow(SessionKey key, Supplier<WebDriver> factory) {
+        long waitStart = System.nanoTime();
+        while (true) {
+            PooledSession session = pollIdle(key);
+            if (session != null) {
+                HITS.incrementAndGet();
+                session.uses++;
+                LOGGER.debug(Messaging.arrow("Reusing pooled session " + key, session.webDriver.toString()));
+                return new Driver(session);
+            }
+            SessionAdmission.Permit permit = SessionAdmission.tryAcquire(key, 0, waitStart);
+            if (permit == null && !evictIdle(key)) {
+                permit = SessionAdmission.tryAcquire(key, ADMISSION_RECHECK_NANOS, waitStart);
+            }
+            if (permit != null) {
+                MISSES.incrementAndGet();
+                try {
+                    session = new PooledSession(key, factory.get(), permit);
+                } catch (RuntimeException e) {
+                    permit.release();
+                    throw e;
+                }
+                session.uses++;
+                return new Driver(session);
+            }
+        }
+    }
+
+    /**
+     * Adds an already created session to the idle pool, for example a session opened ahead of time.
+     *
+     * @param key       {@link SessionKey} of the session.
+     * @param webDriver The idle {@link WebDriver}.
+     * @param permit    {@link SessionAdmission.Permit} the session was opened with, released when it is quit.
+     */
+    static void offer(SessionKey key, WebDriver webDriver, SessionAdmission.Permit permit) {
+        addIdle(new PooledSession(key, webDriver, permit));
+    }
+
+    /**
+     * Resets a borrowed session and returns it to the pool on the calling thread. The session is quit instead, in the
+     * background on {@link TeardownExecutor}, if it is past its max uses or max age, or if it could not be reset.
+     *
+     * @param driver {@link Driver} previously returned by {@link #borrow(SessionKey, Supplier)}.
+     */
+    static void release(Driver driver) {
+        PooledSession session = driver.getPooledSession();
+        if (SHUT_DOWN.get() || session.isExpired() || !reset(session)) {
+            TeardownExecutor.submit("Quit pooled session " + session.key, () -> retire(session));
+            return;
+        }
+        addIdle(session);
+    }
+
+    /**
+     * Returns the number of idle sessions held for a {@link SessionKey}.
+     *
+     * @param key {@link SessionKey} of the sessions.
+     * @return int count of idle sessions.
+     */
+    static int idleCount(SessionKey key) {
+        Deque<PooledSession> idle = IDLE.get(key);
+        return idle == null ? 0 : idle.size();
+    }
+
+    static long getHits() {
+        return HITS.get();
+    }
+
+    static long getMisses() {
+        return MISSES.get();
+    }
+
+    /**
+     * Quits every idle session and stops pooling. Safe to call more than once.
+     */
+    static void shutdown() {
+        if (!SHUT_DOWN.compareAndSet(false, true)) {
+            return;
+        }
+        List<PooledSession> sessions = new ArrayList<>();
+        for (Deque<PooledSession> idle : IDLE.values()) {
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                sessions.add(session);
+            }
+        }
+        sessions.forEach(SessionPool::retire);
+        LOGGER.info("Session pool hits: " + HITS.get() + ", misses: " + MISSES.get() + ", retired: " + RETIRED.get()
+                + ", evicted for admission: " + EVICTED.get() + ", origin reset loads: " + ORIGIN_RESET_LOADS.get()
+                + ", quit for unopened origins: " + RETIRED_FOR_ORIGINS.get());
+    }
+
+    /**
+     * Takes the most recently used idle session for a {@link SessionKey}. Expired ones found on the way are quit in the
+     * background on {@link TeardownExecutor}, so the borrowing thread does not wait for them.
+     */
+    private static PooledSession pollIdle(SessionKey key) {
+        Deque<PooledSession> idle = IDLE.get(key);
+        PooledSession session;
+        while (idle != null && (session = idle.pollFirst()) != null) {
+            if (!session.isExpired()) {
+                return session;
+            }
+            PooledSession expired = session;
+            TeardownExecutor.submit("Quit expired pooled session " + key, () -> retire(expired));
+        }
+        return null;
+    }
+
+    /**
+     * Quits the least recently used idle session of another {@link SessionKey}, freeing its admission permit.
+     *
+     * @return Boolean true if a session was quit.
+     */
+    private static boolean evictIdle(SessionKey key) {
+        for (Map.Entry<SessionKey, Deque<PooledSession>> entry : IDLE.entrySet()) {
+            PooledSession session;
+            if (!entry.getKey().equals(key) && (session = entry.getValue().pollLast()) != null) {
+                EVICTED.incrementAndGet();
+                LOGGER.debug("Quitting idle pooled session " + session.key + " to admit a session for " + key);
+                retire(session);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a session to the idle pool. A session added while {@link #shutdown()} runs may be missed by it, so the flag
+     * is checked again once the session is in the pool, and whichever of the two takes it back out retires it.
+     */
+    private static void addIdle(PooledSession session) {
+        if (SHUT_DOWN.get()) {
+            retire(session);
+            return;
+        }
+        Deque<PooledSession> idle = IDLE.computeIfAbsent(session.key, k -> new ConcurrentLinkedDeque<>());
+        idle.offerFirst(session);
+        if (SHUT_DOWN.get() && idle.removeFirstOccurrence(session)) {
+            retire(session);
+        }
+    }
+
+    /**
+     * Clears the cookies and web storage of every origin the session visited, closes all but the first window, and
+     * navigates to a blank page. Fails without navigating if more than {@link #MAX_ORIGIN_RESET_LOADS} visited origins
+     * are not open in any window.
+     *
+     * @param session {@link PooledSession} to reset.
+     * @return Boolean true if the reset succeeded.
+     */
+    private static boolean reset(PooledSession session) {
+        WebDriver webDriver = session.webDriver;
+        try {
+            Set<String> cleared = new HashSet<>();
+            List<String> handles = new ArrayList<>(webDriver.getWindowHandles());
+            for (int i = handles.size() - 1; i >= 0; i--) {
+                webDriver.switchTo().window(handles.get(i));
+                String origin = origin(webDriver.getCurrentUrl());
+                if (origin != null && cleared.add(origin)) {
+                    clearCurrentOrigin(webDriver);
+                }
+                if (i > 0) {
+                    webDriver.close();
+                }
+            }
+            List<String> unopened = new ArrayList<>(session.visitedOrigins);
+            unopened.removeAll(cleared);
+            if (unopened.size() > MAX_ORIGIN_RESET_LOADS) {
+                RETIRED_FOR_ORIGINS.incrementAndGet();
+                LOGGER.debug("Quitting pooled session " + session.key + " instead of loading " + unopened.size()
+                        + " visited origins to reset them");
+                return false;
+            }
+            for (String origin : unopened) {
+                ORIGIN_RESET_LOADS.incrementAndGet();
+                webDriver.get(origin + ORIGIN_RESET_PATH);
+                clearCurrentOrigin(webDriver);
+            }
+            webDriver.get("about:blank");
+            session.visitedOrigins.clear();
+            return true;
+        } catch (WebDriverException e) {
+            LOGGER.warn("Failed to reset pooled session, it will be quit: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void clearCurrentOrigin(WebDriver webDriver) {
+        webDriver.manage().deleteAllCookies();
+        if (webDriver instanceof JavascriptExecutor) {
+            ((JavascriptExecutor) webDriver).executeScript(RESET_STORAGE_SCRIPT);
+        }
+    }
+
+    private static void retire(PooledSession session) {
+        RETIRED.incrementAndGet();
+        try {
+            session.webDriver.quit();
+        } catch (WebDriverException e) {
+            LOGGER.warn("Failed to quit pooled session " + session.key + ": " + e.getMessage());
+        } finally {
+            session.permit.release();
+        }
+    }
+
+    /**
+     * Returns the scheme, host and port of an http or https URL, or null for any other URL, such as about:blank.
+     */
+    private static String origin(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            return scheme.toLowerCase() + "://" + uri.getHost().toLowerCase()
+                    + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records the origin of each URL a session is sent to, and of each URL it reports as current.
+     */
+    private static final class OriginRecorder implements CommandExecutor {
+
+        private final CommandExecutor delegate;
+        private final Set<String> origins;
+
+        private OriginRecorder(CommandExecutor delegate, Set<String> origins) {
+            this.delegate = delegate;
+            this.origins = origins;
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            if (DriverCommand.GET.equals(command.getName())) {
+                record(command.getParameters().get("url"));
+            }
+            Response response = delegate.execute(command);
+            if (DriverCommand.GET_CURRENT_URL.equals(command.getName()) && response != null) {
+                record(response.getValue());
+            }
+            return response;
+        }
+
+        private void record(Object url) {
+            String origin = url instanceof String ? origin((String) url) : null;
+            if (origin != null) {
+                origins.add(origin);
+            }
+        }
+    }
+
+    /**
+     * A {@link WebDriver} session owned by the pool, along with its usage.
+     */
+    static final class PooledSession {
+
+        private final SessionKey key;
+        private final WebDriver webDriver;
+        private final SessionTimeouts timeouts;
+        private final SessionAdmission.Permit permit;
+        private final Set<String> visitedOrigins = ConcurrentHashMap.newKeySet();
+        private final long createdNanos = System.nanoTime();
+        private int uses;
+
+        private PooledSession(SessionKey key, WebDriver webDriver, SessionAdmission.Permit permit) {
+            this.key = key;
+            this.webDriver = webDriver;
+            this.permit = permit;
+            this.timeouts = new SessionTimeouts(webDriver);
+            if (webDriver instanceof RemoteWebDriver) {
+                CommandExecutors.decorate((RemoteWebDriver) webDriver,
+                        executor -> new OriginRecorder(executor, visitedOrigins));
+            }
+        }
+
+        SessionKey getKey() {
+            return key;
+        }
+
+        WebDriver getWebDriver() {
+            return webDriver;
+        }
+
+        /**
+         * Returns the session's timeout state, kept for the life of the session since a reset leaves timeouts as is.
+         *
+         * @return {@link SessionTimeouts} of the session.
+         */
+        SessionTimeouts getTimeouts() {
+            return timeouts;
+        }
+
+        private boolean isExpired() {
+            return uses >= MAX_USES || System.nanoTime() - createdNanos >= MAX_AGE_NANOS;
+        }
+    }
+}
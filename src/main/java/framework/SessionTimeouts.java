@@ -0,0 +1,119 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side copy of a {@link WebDriver} session's implicit wait and script timeout. Setting a timeout the session
+ * already has is skipped, saving a remote round trip. One instance is kept per session, so the state survives across
+ * page objects and, for {@link SessionPool} sessions, across scenarios.
+ * <p>
+ * The copy is only accurate if timeouts are changed through {@link AbstractDriver}. After a failed command the
+ * state is unknown, and the next change is always sent.
+ */
+final class SessionTimeouts {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SessionTimeouts.class);
+    private static final long UNKNOWN = -1;
+    private static final AtomicLong SENT = new AtomicLong();
+    private static final AtomicLong SAVED = new AtomicLong();
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log session timeout summary",
+                SessionTimeouts::logSummary);
+    }
+
+    private final WebDriver webDriver;
+    private long implicitWaitMillis = UNKNOWN; //guarded by this
+    private long scriptTimeoutMillis = UNKNOWN; //guarded by this
+
+    SessionTimeouts(WebDriver webDriver) {
+        this.webDriver = webDriver;
+    }
+
+    /**
+     * Sets the session's implicit wait, unless it is already set to the same duration.
+     *
+     * @param duration Implicit wait duration.
+     * @param unit     {@link TimeUnit} of the duration.
+     * @return Boolean true if a command was sent to the session.
+     */
+    synchronized boolean setImplicitWait(long duration, TimeUnit unit) {
+        long millis = unit.toMillis(duration);
+        if (millis == implicitWaitMillis) {
+            SAVED.incrementAndGet();
+            return false;
+        }
+        implicitWaitMillis = UNKNOWN;
+        SENT.incrementAndGet();
+        webDriver.manage().timeouts().implicitlyWait(millis, TimeUnit.MILLISECONDS);
+        implicitWaitMillis = millis;
+        return true;
+    }
+
+    /**
+     * Raises the session's script timeout to at least the given duration. No command is sent if it is already long
+     * enough, so async scripts that time out on their own can share one setting.
+     *
+     * @param millis Minimum script timeout in milliseconds.
+     * @return Boolean true if a command was sent to the session.
+     */
+    synchronized boolean ensureScriptTimeout(long millis) {
+        if (scriptTimeoutMillis >= millis) {
+            SAVED.incrementAndGet();
+            return false;
+        }
+        scriptTimeoutMillis = UNKNOWN;
+        SENT.incrementAndGet();
+        webDriver.manage().timeouts().setScriptTimeout(millis, TimeUnit.MILLISECONDS);
+        scriptTimeoutMillis = millis;
+        return true;
+    }
+
+    /**
+     * Returns the session's implicit wait in milliseconds, or -1 if it is not known.
+     *
+     * @return long implicit wait milliseconds.
+     */
+    synchronized long getImplicitWaitMillis() {
+        return implicitWaitMillis;
+    }
+
+    /**
+     * Forgets the known timeouts, for example after the session was changed outside of this class.
+     */
+    synchronized void invalidate() {
+        implicitWaitMillis = UNKNOWN;
+        scriptTimeoutMillis = UNKNOWN;
+    }
+
+    static long getRoundTripsSaved() {
+        return SAVED.get();
+    }
+
+    static long getRoundTripsSent() {
+        return SENT.get();
+    }
+
+    /**
+     * Logs how many timeout commands were sent and how many were skipped.
+     */
+    static void logSummary() {
+        if (SENT.get() + SAVED.get() == 0) {
+            return;
+        }
+        LOGGER.info("Timeout commands sent: " + SENT.get() + ", round trips saved: " + SAVED.get());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "implicit wait " + format(implicitWaitMillis) + ", script timeout " + format(scriptTimeoutMillis);
+    }
+
+    private static String format(long millis) {
+        return millis == UNKNOWN ? "unknown" : millis + " ms";
+    }
+}
@@ -0,0 +1,155 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static framework.Constants.ENV_WARM_SESSIONS;
+
+/**
+ * Opens browser sessions in the background and hands them to {@link SessionPool} so scenarios find a warm session
+ * instead of paying for browser startup. While the suite runs, each {@link SessionKey} is topped back up to the target
+ * number of idle sessions every {@link #FILL_INTERVAL_MILLIS}.
+ * <p>
+ * Each warmed session takes a {@link SessionAdmission} permit, which it keeps while idle in the pool, so warm sessions
+ * count towards the session limits. A session is only warmed while a permit is free without waiting.
+ */
+final class SessionWarmer {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SessionWarmer.class);
+    private static final long FILL_INTERVAL_MILLIS = 1000;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+    private static final Map<SessionKey, AtomicInteger> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final Set<SessionKey> FAILED = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong WARMED = new AtomicLong();
+    private static final AtomicLong LIMITED = new AtomicLong();
+    private static final AtomicLong FIRST_READY_NANOS = new AtomicLong();
+    private static volatile ScheduledExecutorService executor;
+    private static int target;
+    private static long startNanos;
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.STOP, "stop session warm-up", SessionWarmer::stop);
+    }
+
+    private SessionWarmer() {}
+
+    /**
+     * Starts warming sessions for every poolable {@link SessionKey}. The target number of idle sessions per key is
+     * {@link Constants#ENV_WARM_SESSIONS}, defaulting to the thread count capped at the number of processors.
+     *
+     * @param keys        {@link SessionKey} of each browser the suite will run.
+     * @param threadCount Number of threads each browser's tests run with.
+     */
+    static synchronized void start(List<SessionKey> keys, int threadCount) {
+        if (executor != null) {
+            return;
+        }
+        target = EnvVars.getInt(ENV_WARM_SESSIONS, Math.min(threadCount, Runtime.getRuntime().availableProcessors()));
+        List<SessionKey> poolable = keys.stream()
+                .filter(SessionPool::accepts)
+                .distinct()
+                .collect(Collectors.toList());
+        if (target <= 0 || poolable.isEmpty()) {
+            LOGGER.info("Session warm-up disabled");
+            return;
+        }
+
+        int threads = Math.min(target * poolable.size(), Runtime.getRuntime().availableProcessors());
+        executor = Executors.newScheduledThreadPool(Math.max(threads, 1), new DaemonThreadFactory("session-warmer"));
+        startNanos = System.nanoTime();
+        for (SessionKey key : poolable) {
+            IN_FLIGHT.put(key, new AtomicInteger());
+            executor.scheduleWithFixedDelay(() -> fill(key), 0, FILL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        LOGGER.info("Warming " + target + " session(s) each for " + poolable);
+    }
+
+    /**
+     * Stops warming sessions and waits up to {@link #STOP_TIMEOUT_SECONDS} for sessions being opened to finish.
+     */
+    static synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Session warm-up did not stop within " + STOP_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        long firstReady = FIRST_READY_NANOS.get();
+        LOGGER.info("Sessions warmed: " + WARMED.get() + (firstReady == 0 ? "" : ", first ready after "
+                + TimeUnit.NANOSECONDS.toMillis(firstReady - startNanos) + " ms") + ", fills stopped by session limits: "
+                + LIMITED.get());
+    }
+
+    /**
+     * Queues enough session creations to bring the idle count for a {@link SessionKey} up to {@link #target}. Stops
+     * once {@link #stop()} has shut the executor down.
+     *
+     * @param key {@link SessionKey} to fill.
+     */
+    private static void fill(SessionKey key) {
+        ScheduledExecutorService fillExecutor = executor;
+        if (fillExecutor == null || FAILED.contains(key) || !SessionPool.accepts(key)) {
+            return;
+        }
+        AtomicInteger inFlight = IN_FLIGHT.get(key);
+        int missing = target - SessionPool.idleCount(key) - inFlight.get();
+        for (int i = 0; i < missing; i++) {
+            SessionAdmission.Permit permit = SessionAdmission.tryAcquire(key, 0, System.nanoTime());
+            if (permit == null) {
+                LIMITED.incrementAndGet();
+                return; //the session limits are reached, scenarios come first
+            }
+            inFlight.incrementAndGet();
+            try {
+                fillExecutor.execute(() -> open(key, inFlight, permit));
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                permit.release();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Opens one session and offers it to {@link SessionPool}. A key whose sessions fail to open is no longer warmed.
+     *
+     * @param key      {@link SessionKey} of the session to open.
+     * @param inFlight Counter of sessions being opened for the key.
+     * @param permit   {@link SessionAdmission.Permit} taken for the session.
+     */
+    private static void open(SessionKey key, AtomicInteger inFlight, SessionAdmission.Permit permit) {
+        try {
+            WebDriver webDriver = DriverFactory.createWebDriver(key, null);
+            SessionPool.offer(key, webDriver, permit);
+            WARMED.incrementAndGet();
+            FIRST_READY_NANOS.compareAndSet(0, System.nanoTime());
+            LOGGER.debug(Messaging.arrow("Warmed session " + key, webDriver.toString()));
+        } catch (RuntimeException e) {
+            permit.release();
+            if (FAILED.add(key)) {
+                LOGGER.warn("Failed to warm session " + key + ", no more sessions will be warmed for it: "
+                        + e.getMessage());
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package framework;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Combines the Cucumber JSON results of each {@link SuiteSharding} shard into one Cucumber JSON file, and renders one
+ * Extent HTML report from the combined results.
+ */
+final class ShardReportMerger {
+
+    private static final Logger LOGGER = LoggerService.getLogger(ShardReportMerger.class);
+    private static final String MERGED_JSON = "cucumber.json";
+    private static final String MERGED_HTML = "parallel-suite-results.html";
+
+    private ShardReportMerger() {}
+
+    /**
+     * Merges shard Cucumber JSON files into {@link #MERGED_JSON} and {@link #MERGED_HTML} in the output directory.
+     * Features run by several shards are combined into one feature.
+     *
+     * @param outputDirectory   Directory to write the merged reports to.
+     * @param cucumberJsonFiles Cucumber JSON files written by each shard.
+     */
+    static void merge(String outputDirectory, String... cucumberJsonFiles) {
+        Map<String, JsonObject> features = new LinkedHashMap<>();
+        for (String file : cucumberJsonFiles) {
+            for (JsonElement element : read(Paths.get(file))) {
+                JsonObject feature = element.getAsJsonObject();
+                String uri = feature.has("uri") ? feature.get("uri").getAsString() : feature.get("id").getAsString();
+                JsonObject merged = features.get(uri);
+                if (merged == null) {
+                    features.put(uri, feature);
+                } else if (feature.has("elements")) {
+                    if (!merged.has("elements")) {
+                        merged.add("elements", new JsonArray());
+                    }
+                    merged.getAsJsonArray("elements").addAll(feature.getAsJsonArray("elements"));
+                }
+            }
+        }
+        JsonArray mergedFeatures = new JsonArray();
+        features.values().forEach(mergedFeatures::add);
+
+        Path outputDir = Paths.get(outputDirectory);
+        write(outputDir.resolve(MERGED_JSON), mergedFeatures);
+        writeExtentReport(outputDir.resolve(MERGED_HTML), mergedFeatures);
+        LOGGER.info("Merged " + cucumberJsonFiles.length + " shard report(s) into " + outputDir.toAbsolutePath());
+    }
+
+    /**
+     * Writes an Extent report with one test per scenario, matching the layout of {@link ParallelReportingListener}.
+     */
+    private static void writeExtentReport(Path htmlFile, JsonArray features) {
+        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(htmlFile.toString());
+        htmlReporter.config().setDocumentTitle("Merged shard results");
+        htmlReporter.config().setReportName("Merged shard results");
+        ExtentReports report = new ExtentReports();
+        report.attachReporter(htmlReporter);
+
+        for (JsonElement featureElement : features) {
+            JsonObject feature = featureElement.getAsJsonObject();
+            String featureName = getString(feature, "name");
+            if (!feature.has("elements")) {
+                continue;
+            }
+            for (JsonElement scenarioElement : feature.getAsJsonArray("elements")) {
+                JsonObject scenario = scenarioElement.getAsJsonObject();
+                if (!"scenario".equals(getString(scenario, "type"))) {
+                    continue; //backgrounds are reported as part of their scenarios
+                }
+                ExtentTest test = report.createTest(getString(scenario, "name"), featureName);
+                if (scenario.has("tags")) {
+                    scenario.getAsJsonArray("tags")
+                            .forEach(tag -> test.assignCategory(getString(tag.getAsJsonObject(), "name")));
+                }
+                logResult(test, scenario);
+            }
+        }
+        report.flush();
+    }
+
+    /**
+     * Logs a scenario's outcome: failed if any hook or step failed, skipped if any was skipped, pending or undefined,
+     * else passed.
+     */
+    private static void logResult(ExtentTest test, JsonObject scenario) {
+        String error = null;
+        boolean skipped = false;
+        for (String section : new String[]{"before", "steps", "after"}) {
+            if (!scenario.has(section)) {
+                continue;
+            }
+            for (JsonElement step : scenario.getAsJsonArray(section)) {
+                JsonObject result = step.getAsJsonObject().getAsJsonObject("result");
+                String status = result == null ? "" : getString(result, "status");
+                if ("failed".equals(status) && error == null) {
+                    error = result.has("error_message") ? getString(result, "error_message") : "Test failed";
+                } else if ("skipped".equals(status) || "pending".equals(status) || "undefined".equals(status)) {
+                    skipped = true;
+                }
+            }
+        }
+        if (error != null) {
+            test.log(Status.FAIL, error);
+        } else if (skipped) {
+            test.log(Status.SKIP, "Test skipped");
+        } else {
+            test.log(Status.PASS, "Test passed");
+        }
+    }
+
+    private static String getString(JsonObject object, String member) {
+        JsonElement element = object.get(member);
+        return element == null || element.isJsonNull() ? "" : element.getAsString();
+    }
+
+    private static JsonArray read(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(reader).getAsJsonArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void write(Path file, JsonArray json) {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                gson.toJson(json, writer);
+            }
+            LOGGER.info(Messaging.createdFile(file.toString()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
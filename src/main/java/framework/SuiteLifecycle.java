@@ -0,0 +1,92 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The ordered steps that end a run: stopping background work, draining queued work, logging metrics, then closing
+ * sessions, driver services and connections. Each class registers its steps when it is first used, so only what the
+ * run used is stopped or reported. The steps run once, at the end of {@link ParallelSuite#runSuite()} or when the JVM
+ * shuts down, whichever comes first. Steps run in {@link Phase} order, and in the order they were registered within a
+ * phase. A step that throws is logged and the next one runs.
+ */
+final class SuiteLifecycle {
+
+    /**
+     * When a step runs, in order.
+     */
+    enum Phase {
+        /** Stop background work that opens sessions or adjusts limits. */
+        STOP,
+        /** Finish queued teardowns, which may still return sessions to the pool or update Saucelabs jobs. */
+        DRAIN_TEARDOWN,
+        /** Send queued Saucelabs job updates. */
+        DRAIN_UPDATES,
+        /** Log metrics and summaries. */
+        REPORT,
+        /** Quit pooled sessions. */
+        CLOSE_SESSIONS,
+        /** Stop the driver services that hosted the sessions. */
+        STOP_SERVICES,
+        /** Close pooled HTTP connections. */
+        CLOSE_CONNECTIONS
+    }
+
+    private static final Logger LOGGER = LoggerService.getLogger(SuiteLifecycle.class);
+    private static final Map<Phase, List<Step>> STEPS = new EnumMap<>(Phase.class);
+    private static final AtomicBoolean ENDED = new AtomicBoolean();
+
+    static {
+        for (Phase phase : Phase.values()) {
+            STEPS.put(phase, new CopyOnWriteArrayList<>());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(SuiteLifecycle::end, "suite-lifecycle-shutdown"));
+    }
+
+    private SuiteLifecycle() {}
+
+    /**
+     * Adds a step to run at the end of the run. A step registered once its phase has run does not run.
+     *
+     * @param phase       {@link Phase} the step runs in.
+     * @param description String describing the step, used when logging failures.
+     * @param step        The step.
+     */
+    static void register(Phase phase, String description, Runnable step) {
+        STEPS.get(phase).add(new Step(description, step));
+    }
+
+    /**
+     * Runs every registered step, in order, on the first call. Later calls do nothing.
+     */
+    static void end() {
+        if (!ENDED.compareAndSet(false, true)) {
+            return;
+        }
+        for (Phase phase : Phase.values()) {
+            for (Step step : STEPS.get(phase)) {
+                try {
+                    step.task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Suite end step failed: " + step.description, e);
+                }
+            }
+        }
+    }
+
+    private static final class Step {
+
+        private final String description;
+        private final Runnable task;
+
+        private Step(String description, Runnable task) {
+            this.description = description;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package framework;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import io.cucumber.testng.PickleEventWrapper;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static framework.Constants.ENV_SHARD_INDEX;
+import static framework.Constants.ENV_SHARD_STRATEGY;
+import static framework.Constants.ENV_SHARD_TOTAL;
+
+/**
+ * Splits a suite's scenarios across {@link Constants#ENV_SHARD_TOTAL} processes or CI nodes, so each one only runs the
+ * scenarios of its {@link Constants#ENV_SHARD_INDEX}. Every shard computes the same split independently.
+ * <p>
+ * {@link Strategy#HASH} assigns scenarios by a stable hash of their id. {@link Strategy#DURATION} balances shards by
+ * {@link ScenarioHistory} estimates, and needs every shard to read the same history file, e.g. restored from a CI
+ * cache. Without a history file the shard falls back to {@link Strategy#HASH}, so a shard that has the file while
+ * another does not would split differently: provide it to all shards or to none.
+ */
+final class SuiteSharding {
+
+    private static final Logger LOGGER = LoggerService.getLogger(SuiteSharding.class);
+    private static final int TOTAL = EnvVars.getInt(ENV_SHARD_TOTAL, 1);
+    private static final int INDEX = EnvVars.getInt(ENV_SHARD_INDEX, 0);
+    private static final Strategy STRATEGY = strategy();
+
+    static {
+        if (TOTAL < 1 || INDEX < 0 || INDEX >= TOTAL) {
+            throw new IllegalArgumentException("Invalid shard " + ENV_SHARD_INDEX + "=" + INDEX + ", " + ENV_SHARD_TOTAL
+                    + "=" + TOTAL + ". Shard index must be between 0 and the shard total minus 1.");
+        }
+        if (isSharded()) {
+            LOGGER.info("Running shard " + INDEX + " of " + TOTAL + " using " + STRATEGY + " strategy");
+        }
+    }
+
+    private SuiteSharding() {}
+
+    /**
+     * Returns True if shard mode is enabled.
+     *
+     * @return Boolean true or false.
+     */
+    static boolean isSharded() {
+        return TOTAL > 1;
+    }
+
+    /**
+     * Returns the Cucumber data provider rows that belong to this shard, in their original order. Each row's first
+     * element must be a {@link PickleEventWrapper}.
+     *
+     * @param scenarios Data provider rows.
+     * @param browser   Browser the scenarios will run on.
+     * @return The rows of this shard.
+     */
+    static Object[][] select(Object[][] scenarios, String browser) {
+        if (!isSharded()) {
+            return scenarios;
+        }
+        String[] ids = new String[scenarios.length];
+        for (int i = 0; i < scenarios.length; i++) {
+            ids[i] = ScenarioHistory.scenarioId(((PickleEventWrapper) scenarios[i][0]).getPickleEvent());
+        }
+        int[] shards = STRATEGY == Strategy.HASH ? hashShards(ids, TOTAL)
+                : durationShards(ids, estimates(ids, browser), TOTAL);
+        List<Object[]> selected = new ArrayList<>();
+        for (int i = 0; i < scenarios.length; i++) {
+            if (shards[i] == INDEX) {
+                selected.add(scenarios[i]);
+            }
+        }
+        LOGGER.info("Shard " + INDEX + " selected " + selected.size() + " of " + scenarios.length + " scenarios"
+                + (Strings.isNullOrEmpty(browser) ? "" : " on " + browser));
+        return selected.toArray(new Object[0][]);
+    }
+
+    /**
+     * Returns the configured {@link Strategy}, or {@link Strategy#HASH} if {@link Strategy#DURATION} has no history to
+     * balance by.
+     */
+    private static Strategy strategy() {
+        Strategy strategy = Strategy.valueOf(EnvVars.getString(ENV_SHARD_STRATEGY, "HASH").toUpperCase());
+        if (strategy == Strategy.DURATION && TOTAL > 1 && !ScenarioHistory.isLoaded()) {
+            LOGGER.warn("No scenario history to balance shards by, using " + Strategy.HASH + " instead of "
+                    + Strategy.DURATION + ". Every shard must read the same history file.");
+            return Strategy.HASH;
+        }
+        return strategy;
+    }
+
+    /**
+     * Assigns each scenario to a shard by a stable hash of its id.
+     *
+     * @param ids   Scenario ids, see {@link ScenarioHistory#scenarioId(gherkin.events.PickleEvent)}.
+     * @param total Number of shards.
+     * @return The shard index of each scenario.
+     */
+    static int[] hashShards(String[] ids, int total) {
+        int[] shards = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int hash = Hashing.murmur3_32().hashString(ids[i], StandardCharsets.UTF_8).asInt();
+            shards[i] = Math.floorMod(hash, total);
+        }
+        return shards;
+    }
+
+    /**
+     * Assigns the longest scenarios first, each to the shard with the least estimated work so far. Ties are broken by
+     * scenario id and shard index so the result does not depend on the order scenarios were discovered in.
+     *
+     * @param ids       Scenario ids, see {@link ScenarioHistory#scenarioId(gherkin.events.PickleEvent)}.
+     * @param estimates Estimated duration of each scenario.
+     * @param total     Number of shards.
+     * @return The shard index of each scenario.
+     */
+    static int[] durationShards(String[] ids, long[] estimates, int total) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong((Integer i) -> estimates[i]).reversed().thenComparing(i -> ids[i]));
+
+        int[] shards = new int[ids.length];
+        long[] load = new long[total];
+        for (int i : order) {
+            int lightest = 0;
+            for (int shard = 1; shard < total; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            shards[i] = lightest;
+            load[lightest] += estimates[i];
+        }
+        return shards;
+    }
+
+    private static long[] estimates(String[] ids, String browser) {
+        long[] estimates = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            estimates[i] = ScenarioHistory.estimateMillis(ids[i], browser);
+        }
+        return estimates;
+    }
+
+    enum Strategy {
+        HASH, DURATION
+    }
+}
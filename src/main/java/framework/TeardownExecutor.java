@@ -0,0 +1,118 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static framework.Constants.ENV_TEARDOWN_QUEUE_SIZE;
+import static framework.Constants.ENV_TEARDOWN_THREADS;
+import static framework.Constants.ENV_TEARDOWN_TIMEOUT_SECONDS;
+
+/**
+ * Runs after-scenario work such as {@link org.openqa.selenium.WebDriver#quit()} on a bounded pool of background
+ * threads, so test threads can move on to their next scenario. When the queue is full, or after
+ * {@link #drain()}, tasks run on the calling thread instead. Failed tasks are logged and counted.
+ */
+final class TeardownExecutor {
+
+    private static final Logger LOGGER = LoggerService.getLogger(TeardownExecutor.class);
+    private static final int THREADS = EnvVars.getInt(ENV_TEARDOWN_THREADS, 4);
+    private static final int QUEUE_SIZE = EnvVars.getInt(ENV_TEARDOWN_QUEUE_SIZE, 100);
+    private static final long DRAIN_TIMEOUT_SECONDS = EnvVars.getLong(ENV_TEARDOWN_TIMEOUT_SECONDS, 120);
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), new DaemonThreadFactory("teardown"),
+            new ThreadPoolExecutor.AbortPolicy());
+    private static final AtomicLong COMPLETED = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+    private static final AtomicLong RAN_ON_CALLER = new AtomicLong();
+    private static final AtomicLong TOTAL_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong TOTAL_RUN_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_RUN_NANOS = new AtomicLong();
+    private static final AtomicInteger MAX_QUEUE_DEPTH = new AtomicInteger();
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        //pending teardowns may still return sessions to the pool, so they finish before it shuts down
+        SuiteLifecycle.register(SuiteLifecycle.Phase.DRAIN_TEARDOWN, "drain teardowns", TeardownExecutor::drain);
+    }
+
+    private TeardownExecutor() {}
+
+    /**
+     * Queues a teardown task to run in the background, with the calling thread's {@link ScenarioLogContext}.
+     *
+     * @param description String describing the task, used when logging failures.
+     * @param task        The teardown work.
+     */
+    static void submit(String description, Runnable task) {
+        long queuedNanos = System.nanoTime();
+        Runnable timed = ScenarioLogContext.wrap(() -> run(description, task, queuedNanos));
+        if (EXECUTOR.isShutdown()) {
+            RAN_ON_CALLER.incrementAndGet();
+            timed.run();
+            return;
+        }
+        try {
+            EXECUTOR.execute(timed);
+            MAX_QUEUE_DEPTH.accumulateAndGet(EXECUTOR.getQueue().size(), Math::max);
+        } catch (RejectedExecutionException e) {
+            RAN_ON_CALLER.incrementAndGet();
+            timed.run();
+        }
+    }
+
+    /**
+     * Waits up to {@link #DRAIN_TIMEOUT_SECONDS} for queued teardowns to finish, then logs the teardown metrics. Tasks
+     * submitted afterwards run on the calling thread. Safe to call more than once.
+     */
+    static void drain() {
+        if (EXECUTOR.isShutdown()) {
+            return;
+        }
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                List<Runnable> abandoned = EXECUTOR.shutdownNow();
+                LOGGER.error("Teardown did not finish within " + DRAIN_TIMEOUT_SECONDS + " seconds, abandoned "
+                        + abandoned.size() + " queued task(s)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long completed = Math.max(COMPLETED.get(), 1);
+        LOGGER.info("Teardown tasks completed: " + COMPLETED.get() + ", failed: " + FAILED.get()
+                + ", ran on caller: " + RAN_ON_CALLER.get() + ", max queue depth: " + MAX_QUEUE_DEPTH.get()
+                + ", avg/max wait ms: " + toMillis(TOTAL_WAIT_NANOS.get() / completed) + "/" + toMillis(MAX_WAIT_NANOS.get())
+                + ", avg/max run ms: " + toMillis(TOTAL_RUN_NANOS.get() / completed) + "/" + toMillis(MAX_RUN_NANOS.get()));
+    }
+
+    private static void run(String description, Runnable task, long queuedNanos) {
+        long startNanos = System.nanoTime();
+        record(TOTAL_WAIT_NANOS, MAX_WAIT_NANOS, startNanos - queuedNanos);
+        try {
+            task.run();
+        } catch (Throwable t) {
+            FAILED.incrementAndGet();
+            LOGGER.error("Teardown failed: " + description, t);
+        } finally {
+            COMPLETED.incrementAndGet();
+            record(TOTAL_RUN_NANOS, MAX_RUN_NANOS, System.nanoTime() - startNanos);
+        }
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
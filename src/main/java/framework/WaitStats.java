@@ -0,0 +1,102 @@
+package framework;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics for a single {@link AbstractDriver} wait: how many times the condition was polled, and how long it took
+ * to become true or time out. Totals across all waits are kept for tuning {@link PollingStrategy}.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class WaitStats {
+
+    private static final Logger LOGGER = LoggerService.getLogger(WaitStats.class);
+    private static final AtomicLong WAITS = new AtomicLong();
+    private static final AtomicLong TIMEOUTS = new AtomicLong();
+    private static final AtomicLong TOTAL_POLLS = new AtomicLong();
+    private static final AtomicLong TOTAL_SATISFIED_MILLIS = new AtomicLong();
+    private static final AtomicLong OBSERVED = new AtomicLong();
+    private static final AtomicLong OBSERVATION_FALLBACKS = new AtomicLong();
+
+    static {
+        SuiteLifecycle.register(SuiteLifecycle.Phase.REPORT, "log wait summary", WaitStats::logSummary);
+    }
+
+    private final int polls;
+    private final long elapsedMillis;
+    private final boolean satisfied;
+
+    WaitStats(int polls, long elapsedMillis, boolean satisfied) {
+        this.polls = polls;
+        this.elapsedMillis = elapsedMillis;
+        this.satisfied = satisfied;
+        WAITS.incrementAndGet();
+        TOTAL_POLLS.addAndGet(polls);
+        if (satisfied) {
+            TOTAL_SATISFIED_MILLIS.addAndGet(elapsedMillis);
+        } else {
+            TIMEOUTS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of times the condition was evaluated.
+     *
+     * @return int number of polls.
+     */
+    public int getPolls() {
+        return polls;
+    }
+
+    /**
+     * Returns the milliseconds from the start of the wait until the condition was true, or until the wait gave up.
+     *
+     * @return long elapsed milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns True if the condition became true before the timeout.
+     *
+     * @return Boolean true or false.
+     */
+    public boolean isSatisfied() {
+        return satisfied;
+    }
+
+    /**
+     * Records the outcome of an event-driven wait observed in the page.
+     *
+     * @param result True if the condition was observed, false on timeout, null if the wait fell back to polling.
+     */
+    static void recordObservation(Boolean result) {
+        if (result == null) {
+            OBSERVATION_FALLBACKS.incrementAndGet();
+        } else {
+            OBSERVED.incrementAndGet();
+        }
+    }
+
+    /**
+     * Logs the totals across all waits.
+     */
+    static void logSummary() {
+        long waits = WAITS.get();
+        if (waits == 0) {
+            return;
+        }
+        long satisfied = Math.max(waits - TIMEOUTS.get(), 1);
+        LOGGER.info("Waits: " + waits + ", timed out: " + TIMEOUTS.get() + ", avg polls: "
+                + (TOTAL_POLLS.get() / waits) + ", avg ms until satisfied: " + (TOTAL_SATISFIED_MILLIS.get() / satisfied)
+                + ", event-driven: " + OBSERVED.get() + ", fell back to polling: " + OBSERVATION_FALLBACKS.get()
+                + ", " + PollingStrategy.getDefault());
+    }
+
+    @Override
+    public String toString() {
+        return (satisfied ? "satisfied" : "not satisfied") + " after " + polls + " poll(s) in " + elapsedMillis + " ms";
+    }
+}
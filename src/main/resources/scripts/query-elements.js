@@ -0,0 +1,91 @@
+/*
+ * Looks up the first element matching each locator and reads the requested properties, in one call.
+ * Arguments: array of [locator strategy, locator value], array of property names.
+ * Returns one object per locator: {supported, count, and each requested property of the first match}.
+ */
+var locators = arguments[0], properties = arguments[1];
+
+function findAll(strategy, value) {
+    switch (strategy) {
+        case 'id':
+            return document.querySelectorAll('[id="' + value.replace(/(["\\])/g, '\\$1') + '"]');
+        case 'name':
+            return document.getElementsByName(value);
+        case 'className':
+            return document.getElementsByClassName(value);
+        case 'tagName':
+            return document.getElementsByTagName(value);
+        case 'cssSelector':
+            return document.querySelectorAll(value);
+        case 'xpath':
+            var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+            var nodes = [];
+            for (var i = 0; i < snapshot.snapshotLength; i++) {
+                if (snapshot.snapshotItem(i).nodeType === 1) {
+                    nodes.push(snapshot.snapshotItem(i));
+                }
+            }
+            return nodes;
+    }
+    return null;
+}
+
+function hasSize(element) {
+    var rect = element.getBoundingClientRect();
+    if (rect.width > 0 && rect.height > 0) {
+        return true;
+    }
+    for (var child = element.firstElementChild; child; child = child.nextElementSibling) {
+        if (window.getComputedStyle(child).display !== 'none' && hasSize(child)) {
+            return true;
+        }
+    }
+    return false;
+}
+
+function displayed(element) {
+    if (element.tagName.toLowerCase() === 'input' && (element.type || '').toLowerCase() === 'hidden') {
+        return false;
+    }
+    if (window.getComputedStyle(element).visibility !== 'visible') {
+        return false;
+    }
+    for (var node = element; node && node.nodeType === 1; node = node.parentElement) {
+        var style = window.getComputedStyle(node);
+        if (style.display === 'none' || style.opacity === '0') {
+            return false;
+        }
+    }
+    return hasSize(element);
+}
+
+function read(element, property) {
+    switch (property) {
+        case 'DISPLAYED':
+            return displayed(element);
+        case 'TEXT':
+            return displayed(element) ? (element.innerText || '').replace(/\u00a0/g, ' ').trim() : '';
+        case 'ENABLED':
+            return !element.disabled;
+        case 'SELECTED':
+            return !!(element.checked || element.selected);
+        case 'TAG_NAME':
+            return element.tagName.toLowerCase();
+        case 'VALUE':
+            return element.value === undefined ? null : String(element.value);
+    }
+    return null;
+}
+
+var results = [];
+for (var i = 0; i < locators.length; i++) {
+    var matches = findAll(locators[i][0], locators[i][1]);
+    var result = {supported: matches !== null, count: matches === null ? 0 : matches.length};
+    if (result.count > 0) {
+        for (var p = 0; p < properties.length; p++) {
+            result[properties[p]] = read(matches[0], properties[p]);
+        }
+    }
+    results.push(result);
+}
+return results;
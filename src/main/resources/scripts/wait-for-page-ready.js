@@ -0,0 +1,107 @@
+/*
+ * Resolves the async script callback once the page is quiescent: the document is complete, no instrumented XHR or
+ * fetch request is in flight, no finite animation is running, and none of that changed for the quiet window, measured
+ * across animation frames. Requests are instrumented the first time this runs on a page, so requests started before
+ * that are not seen.
+ * Arguments: quiet window in milliseconds, timeout in milliseconds, callback.
+ * Result: {ready, pendingRequests, url, sinceNavigationMillis}. The time since navigation is only given the first time
+ * this runs on a document, later waits on the same document follow an in-page change rather than a navigation.
+ */
+var quietMillis = arguments[0], timeoutMillis = arguments[1];
+var callback = arguments[arguments.length - 1];
+
+var state = window.__bddPageReady, firstWait = !state;
+if (firstWait) {
+    state = window.__bddPageReady = {pending: 0, lastActivity: Date.now()};
+    var activity = function (delta) {
+        state.pending = Math.max(0, state.pending + delta);
+        state.lastActivity = Date.now();
+    };
+    if (window.XMLHttpRequest) {
+        var send = XMLHttpRequest.prototype.send;
+        XMLHttpRequest.prototype.send = function () {
+            var xhr = this, done = false;
+            var finish = function () {
+                if (!done) {
+                    done = true;
+                    activity(-1);
+                }
+            };
+            activity(1);
+            xhr.addEventListener('loadend', finish);
+            try {
+                return send.apply(xhr, arguments);
+            } catch (e) {
+                finish();
+                throw e;
+            }
+        };
+    }
+    if (window.fetch) {
+        var fetch = window.fetch;
+        window.fetch = function () {
+            activity(1);
+            var finish = function () {
+                activity(-1);
+            };
+            try {
+                var promise = fetch.apply(this, arguments);
+                promise.then(finish, finish);
+                return promise;
+            } catch (e) {
+                finish();
+                throw e;
+            }
+        };
+    }
+}
+
+function animating() {
+    if (!document.getAnimations) {
+        return false;
+    }
+    var animations = document.getAnimations();
+    for (var i = 0; i < animations.length; i++) {
+        var timing = animations[i].effect && animations[i].effect.getComputedTiming();
+        if (animations[i].playState === 'running' && timing && timing.endTime !== Infinity) {
+            return true;
+        }
+    }
+    return false;
+}
+
+function sinceNavigation() {
+    var timing = window.performance && window.performance.timing;
+    return timing && timing.navigationStart ? Date.now() - timing.navigationStart : null;
+}
+
+var deadline = Date.now() + timeoutMillis, quietSince = null;
+
+function result(ready) {
+    return {
+        ready: ready,
+        pendingRequests: state.pending,
+        url: window.location.href,
+        sinceNavigationMillis: firstWait ? sinceNavigation() : null
+    };
+}
+
+function check() {
+    var now = Date.now();
+    if (document.readyState !== 'complete' || state.pending > 0 || animating()) {
+        quietSince = null;
+    } else if (quietSince === null || state.lastActivity > quietSince) {
+        quietSince = Math.max(now, state.lastActivity);
+    }
+    if (quietSince !== null && now - quietSince >= quietMillis) {
+        callback(result(true));
+    } else if (now >= deadline) {
+        callback(result(false));
+    } else if (document.hidden || !window.requestAnimationFrame) {
+        setTimeout(check, 50); //animation frames do not fire in background tabs
+    } else {
+        requestAnimationFrame(check);
+    }
+}
+
+check();
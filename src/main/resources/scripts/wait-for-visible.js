@@ -0,0 +1,82 @@
+/*
+ * Resolves the async script callback with true as soon as the first element matching the locator is displayed, with
+ * false once the timeout passes, or with null if the browser cannot observe DOM mutations.
+ * Arguments: locator strategy, locator value, timeout in milliseconds, callback.
+ */
+var strategy = arguments[0], value = arguments[1], timeoutMillis = arguments[2];
+var callback = arguments[arguments.length - 1];
+
+if (typeof MutationObserver === 'undefined') {
+    callback(null);
+    return;
+}
+
+function find() {
+    switch (strategy) {
+        case 'id':
+            return document.getElementById(value);
+        case 'name':
+            return document.getElementsByName(value)[0];
+        case 'className':
+            return document.getElementsByClassName(value)[0];
+        case 'tagName':
+            return document.getElementsByTagName(value)[0];
+        case 'cssSelector':
+            return document.querySelector(value);
+        case 'xpath':
+            return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+    }
+    return null;
+}
+
+/* Only rules out what WebDriver also treats as hidden, the final check is always WebDriver's own. */
+function displayed(element) {
+    if (!element || element.nodeType !== 1 || !document.documentElement.contains(element)) {
+        return false;
+    }
+    if (element.getClientRects().length === 0 || window.getComputedStyle(element).visibility !== 'visible') {
+        return false;
+    }
+    for (var node = element; node && node.nodeType === 1; node = node.parentElement) {
+        var style = window.getComputedStyle(node);
+        if (style.display === 'none' || style.opacity === '0') {
+            return false;
+        }
+    }
+    return true;
+}
+
+var finished = false, observer, safetyNet, timer;
+
+function finish(result) {
+    if (finished) {
+        return;
+    }
+    finished = true;
+    observer.disconnect();
+    clearInterval(safetyNet);
+    clearTimeout(timer);
+    document.removeEventListener('transitionend', check, true);
+    document.removeEventListener('animationend', check, true);
+    callback(result);
+}
+
+function check() {
+    try {
+        if (displayed(find())) {
+            finish(true);
+        }
+    } catch (e) {
+        finish(null);
+    }
+}
+
+observer = new MutationObserver(check);
+observer.observe(document.documentElement, {attributes: true, childList: true, characterData: true, subtree: true});
+document.addEventListener('transitionend', check, true);
+document.addEventListener('animationend', check, true);
+safetyNet = setInterval(check, 250); //style changes that are not DOM mutations, e.g. media queries
+timer = setTimeout(function () {
+    finish(false);
+}, timeoutMillis);
+check();
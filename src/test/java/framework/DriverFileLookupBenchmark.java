@@ -0,0 +1,71 @@
+package framework;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures driver file lookups from many threads once the files are resolved: the lock-free
+ * {@link LocalWebDriverFactory#getDriverFile(String)} against a class-wide synchronized HashMap, as the lookup was
+ * before. Run its main method, it is not a TestNG test. Arguments: threads, lookups per thread and rounds, defaulting
+ * to 99, 200000 and 5. The first rounds warm up the JIT.
+ */
+public final class DriverFileLookupBenchmark {
+
+    private static final String[] RESOURCES = {"/geckodriver26.exe", "/log4j2.xml"};
+    private static final Map<String, File> SYNCHRONIZED_FILES = new HashMap<>();
+
+    private DriverFileLookupBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 99;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        for (String resource : RESOURCES) {
+            LocalWebDriverFactory.getDriverFile(resource);
+        }
+        for (int round = 1; round <= rounds; round++) {
+            long synchronizedMillis = run(threads, lookups, DriverFileLookupBenchmark::synchronizedLookup);
+            long lockFreeMillis = run(threads, lookups, LocalWebDriverFactory::getDriverFile);
+            System.out.println("Round " + round + ": " + threads + " threads x " + lookups + " lookups, synchronized "
+                    + synchronizedMillis + " ms, lock-free " + lockFreeMillis + " ms");
+        }
+    }
+
+    private static synchronized File synchronizedLookup(String resourceName) {
+        return SYNCHRONIZED_FILES.computeIfAbsent(resourceName, FileService::getCachedResourceFile);
+    }
+
+    private static long run(int threads, int lookups, Lookup lookup) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < lookups; i++) {
+                        if (lookup.find(RESOURCES[i & 1]) == null) {
+                            throw new IllegalStateException("Lookup returned null");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "lookup-benchmark-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    }
+
+    private interface Lookup {
+        File find(String resourceName);
+    }
+}
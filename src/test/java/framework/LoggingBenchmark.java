@@ -0,0 +1,82 @@
+package framework;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures logging from many threads with log4j2.xml: logger lookups by the class name found in a stack trace, as
+ * {@link LoggerService#getLogger(Class)} did before, against passing the class; DEBUG calls outside a scenario, below
+ * the console's level; and INFO lines logged in a burst and sustained. Run its main method, it is not a TestNG test.
+ * Arguments: threads, burst lines and sustained lines per thread, and rounds, defaulting to 16, 400, 20000 and 3.
+ * <p>
+ * The console is stdout, so redirect it to /dev/null or a pipe; results are printed to stderr. Run it again with
+ * -Dlog4j.configurationFile=benchmark-log4j2-sync.xml to compare with a synchronous console.
+ */
+public final class LoggingBenchmark {
+
+    private static final int LOOKUPS = 2000;
+
+    private LoggingBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int burstLines = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int sustainedLines = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        Logger logger = LoggerService.getLogger(LoggingBenchmark.class);
+        for (int round = 1; round <= rounds; round++) {
+            long stackWalkNanos = run(threads, LOOKUPS,
+                    i -> LogManager.getLogger(Thread.currentThread().getStackTrace()[1].getClassName()));
+            long classNanos = run(threads, LOOKUPS, i -> LoggerService.getLogger(LoggingBenchmark.class));
+            long debugNanos = run(threads, sustainedLines, i -> logger.debug("Benchmark debug line " + i));
+            long burstNanos = run(threads, burstLines, i -> logger.info("Benchmark burst line " + i));
+            long sustainedNanos = run(threads, sustainedLines, i -> logger.info("Benchmark sustained line " + i));
+            System.err.println("Round " + round + ", " + threads + " threads: logger lookup us/call stack walk "
+                    + micros(stackWalkNanos, threads * LOOKUPS) + ", class " + micros(classNanos, threads * LOOKUPS)
+                    + "; " + sustainedLines + " debug calls " + millis(debugNanos) + " ms; " + burstLines
+                    + " burst lines " + millis(burstNanos) + " ms; " + sustainedLines + " sustained lines "
+                    + millis(sustainedNanos) + " ms");
+        }
+        LogManager.shutdown();
+    }
+
+    private static String micros(long nanos, int calls) {
+        return String.format("%.2f", nanos / 1000.0 / calls);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static long run(int threads, int calls, Call call) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < calls; i++) {
+                        call.run(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "logging-benchmark-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    private interface Call {
+        void run(int i);
+    }
+}
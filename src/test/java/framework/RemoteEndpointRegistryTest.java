@@ -0,0 +1,75 @@
+package framework;
+
+import org.openqa.selenium.ImmutableCapabilities;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class RemoteEndpointRegistryTest {
+
+    @Test
+    public void parsesEndpointsInOrder() {
+        List<RemoteEndpointRegistry.Endpoint> endpoints = RemoteEndpointRegistry.parse(
+                " grid|http://localhost:4444/wd/hub|8 ; ;lab|https://lab.example.com:443/wd/hub|2|browserName=chrome");
+        assertEquals(endpoints.size(), 2);
+        assertEquals(endpoints.get(0).getName(), "grid");
+        assertEquals(endpoints.get(0).getUrl().toString(), "http://localhost:4444/wd/hub");
+        assertEquals(endpoints.get(0).getCapacity(), 8);
+        assertEquals(endpoints.get(1).getName(), "lab");
+        assertEquals(endpoints.get(1).getUrl().getPort(), 443);
+        assertEquals(endpoints.get(1).getCapacity(), 2);
+    }
+
+    @Test
+    public void emptyValueHasNoEndpoints() {
+        assertTrue(RemoteEndpointRegistry.parse("").isEmpty());
+    }
+
+    @Test
+    public void capacityIsAtLeastOne() {
+        assertEquals(RemoteEndpointRegistry.parse("grid|http://localhost:4444/wd/hub|0").get(0).getCapacity(), 1);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void entryWithoutCapacityIsRejected() {
+        RemoteEndpointRegistry.parse("grid|http://localhost:4444/wd/hub");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void invalidUrlIsRejected() {
+        RemoteEndpointRegistry.parse("grid|localhost:4444|8");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void invalidCapacityIsRejected() {
+        RemoteEndpointRegistry.parse("grid|http://localhost:4444/wd/hub|many");
+    }
+
+    @Test
+    public void endpointWithoutFiltersAcceptsAnySession() {
+        RemoteEndpointRegistry.Endpoint endpoint = RemoteEndpointRegistry.parse("grid|http://localhost:4444|8").get(0);
+        assertTrue(endpoint.accepts(new ImmutableCapabilities("browserName", "safari")));
+    }
+
+    @Test
+    public void repeatedCapabilityMatchesAnyOfItsValuesIgnoringCase() {
+        RemoteEndpointRegistry.Endpoint endpoint = RemoteEndpointRegistry.parse(
+                "grid|http://localhost:4444|8|browserName=chrome, browserName=Firefox").get(0);
+        assertTrue(endpoint.accepts(new ImmutableCapabilities("browserName", "chrome")));
+        assertTrue(endpoint.accepts(new ImmutableCapabilities("browserName", "FIREFOX")));
+        assertFalse(endpoint.accepts(new ImmutableCapabilities("browserName", "safari")));
+    }
+
+    @Test
+    public void everyFilteredCapabilityMustMatch() {
+        RemoteEndpointRegistry.Endpoint endpoint = RemoteEndpointRegistry.parse(
+                "grid|http://localhost:4444|8|browserName=chrome,platform=linux").get(0);
+        assertTrue(endpoint.accepts(new ImmutableCapabilities("browserName", "chrome", "platform", "LINUX")));
+        assertFalse(endpoint.accepts(new ImmutableCapabilities("browserName", "chrome", "platform", "windows")));
+        assertFalse(endpoint.accepts(new ImmutableCapabilities("browserName", "chrome")));
+    }
+}
@@ -0,0 +1,190 @@
+package framework;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * Creates sessions through {@link RemoteEndpointRegistry} on in-JVM stub WebDriver hubs, which answer new session
+ * requests with a scripted sequence of HTTP statuses. Each hub names its sessions after itself, so a session's id
+ * shows which endpoint it went to.
+ */
+public class RemoteEndpointRoutingTest {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(20);
+    private static final Map<String, List<Integer>> STATUSES = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> REQUESTED = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> CREATED = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> QUIT = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeClass
+    public void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(new DaemonThreadFactory("stub-hub")));
+        for (String hub : Arrays.asList("a", "b")) {
+            server.createContext("/" + hub + "/", exchange -> handle(hub, exchange));
+        }
+        server.start();
+        baseUrl = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        server.stop(0);
+        RemoteEndpointRegistry.setEndpoints(Collections.emptyList());
+    }
+
+    @BeforeMethod
+    public void resetHubs() {
+        STATUSES.clear();
+        REQUESTED.clear();
+        CREATED.clear();
+        QUIT.clear();
+    }
+
+    @Test
+    public void sessionsGoToTheLeastLoadedEndpointAndFreeTheirSlotWhenQuit() {
+        RemoteEndpointRegistry.setEndpoints(RemoteEndpointRegistry.parse(
+                "a|" + baseUrl + "/a|2;b|" + baseUrl + "/b|4"));
+
+        List<RemoteWebDriver> sessions = new ArrayList<>();
+        List<String> hubs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            RemoteWebDriver session = RemoteEndpointRegistry.createSession(new DesiredCapabilities());
+            sessions.add(session);
+            hubs.add(hubOf(session));
+        }
+        //equally loaded endpoints are taken in the order they are listed
+        assertEquals(hubs, Arrays.asList("a", "b", "b", "a", "b"));
+
+        sessions.get(0).quit();
+        assertEquals(count(QUIT, "a"), 1);
+        RemoteWebDriver afterQuit = RemoteEndpointRegistry.createSession(new DesiredCapabilities());
+        assertEquals(hubOf(afterQuit), "a", "a at 1/2 is less loaded than b at 3/4 once a session on a is quit");
+
+        sessions.subList(1, sessions.size()).forEach(RemoteWebDriver::quit);
+        afterQuit.quit();
+    }
+
+    @Test
+    public void failedCreationFailsOverAndAnEndpointFailingTwiceIsSkipped() throws Exception {
+        RemoteEndpointRegistry.setEndpoints(RemoteEndpointRegistry.parse(
+                "a|" + baseUrl + "/a|4;b|" + baseUrl + "/b|1"));
+        STATUSES.put("a", new ArrayList<>(Arrays.asList(500, 500, 200)));
+
+        RemoteWebDriver first = RemoteEndpointRegistry.createSession(new DesiredCapabilities());
+        assertEquals(hubOf(first), "b", "the failed creation on a is retried on b");
+        assertEquals(count(CREATED, "a"), 0);
+
+        ExecutorService threads = Executors.newCachedThreadPool(new DaemonThreadFactory("routing-test"));
+        try {
+            //b is full, so a is tried again and fails a second time; b is then waited for
+            Future<RemoteWebDriver> second = threads.submit(
+                    () -> RemoteEndpointRegistry.createSession(new DesiredCapabilities()));
+            awaitRequests("a", 2);
+            first.quit();
+            RemoteWebDriver secondSession = second.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertEquals(hubOf(secondSession), "b");
+
+            //a would now succeed and has free slots, but it is unhealthy while b is healthy
+            Future<RemoteWebDriver> third = threads.submit(
+                    () -> RemoteEndpointRegistry.createSession(new DesiredCapabilities()));
+            try {
+                third.get(1, TimeUnit.SECONDS);
+                fail("a session was created while the only healthy endpoint was full");
+            } catch (TimeoutException expected) {
+                //waiting for b
+            }
+            secondSession.quit();
+            RemoteWebDriver thirdSession = third.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertEquals(hubOf(thirdSession), "b");
+            assertEquals(count(REQUESTED, "a"), 2, "the unhealthy endpoint is not tried again");
+            thirdSession.quit();
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static String hubOf(RemoteWebDriver session) {
+        String id = session.getSessionId().toString();
+        return id.substring(0, id.indexOf('-'));
+    }
+
+    private static int count(Map<String, AtomicInteger> counts, String hub) {
+        AtomicInteger count = counts.get(hub);
+        return count == null ? 0 : count.get();
+    }
+
+    private static void awaitRequests(String hub, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (count(REQUESTED, hub) < count) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Hub " + hub + " did not receive " + count + " new session request(s) within "
+                        + TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static void handle(String hub, HttpExchange exchange) throws IOException {
+        drain(exchange.getRequestBody());
+        String path = exchange.getRequestURI().getPath();
+        int status = 200;
+        String body = "{\"status\":0,\"value\":null}";
+        if ("POST".equals(exchange.getRequestMethod()) && path.endsWith("/session")) {
+            REQUESTED.computeIfAbsent(hub, h -> new AtomicInteger()).incrementAndGet();
+            List<Integer> statuses = STATUSES.getOrDefault(hub, Collections.emptyList());
+            synchronized (statuses) {
+                status = statuses.size() > 1 ? statuses.remove(0) : statuses.isEmpty() ? 200 : statuses.get(0);
+            }
+            body = status == 200
+                    ? "{\"sessionId\":\"" + hub + "-" + CREATED.computeIfAbsent(hub, h -> new AtomicInteger())
+                    .incrementAndGet() + "\",\"status\":0,\"value\":{\"browserName\":\"stub\"}}"
+                    : "{\"status\":13,\"value\":{\"message\":\"hub " + hub + " is down\"}}";
+        } else if ("DELETE".equals(exchange.getRequestMethod())) {
+            QUIT.computeIfAbsent(hub, h -> new AtomicInteger()).incrementAndGet();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) != -1) {
+            //the request body is not needed
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package framework;
+
+import com.google.gson.Gson;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ReportRendererTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    public void truncatedLastLineIsSkipped() throws IOException {
+        Path directory = Files.createTempDirectory("report-renderer");
+        Path events = directory.resolve("events.jsonl");
+        Path html = directory.resolve("report.html");
+        String complete = line(ReportEvent.suiteStarted("Renderer suite"))
+                + line(ReportEvent.testStarted(1, "Passing scenario", "Login feature", "chrome"))
+                + line(ReportEvent.testLog(1, "scenario log line"))
+                + line(ReportEvent.testPassed(1))
+                + line(ReportEvent.testStarted(2, "Interrupted scenario", "Login feature", "chrome"));
+        String truncated = line(ReportEvent.testFailed(2, new IllegalStateException("never written")));
+        Files.write(events, (complete + truncated.substring(0, truncated.length() / 2))
+                .getBytes(StandardCharsets.UTF_8));
+
+        ReportRenderer.render(events, html);
+
+        String report = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+        assertTrue(report.contains("Renderer suite"));
+        assertTrue(report.contains("Passing scenario"));
+        assertTrue(report.contains("scenario log line"));
+        assertTrue(report.contains("Interrupted scenario"));
+        assertFalse(report.contains("never written"));
+    }
+
+    @Test
+    public void missingEventFileWritesNoReport() throws IOException {
+        Path directory = Files.createTempDirectory("report-renderer");
+        Path html = directory.resolve("report.html");
+        ReportRenderer.render(directory.resolve("missing.jsonl"), html);
+        assertFalse(Files.exists(html));
+    }
+
+    private static String line(ReportEvent event) {
+        return GSON.toJson(event.toJson()) + "\n";
+    }
+}
@@ -0,0 +1,117 @@
+package framework;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reads a Saucelabs account's concurrency through {@link SauceConcurrency} from an in-JVM stub of the concurrency and
+ * activity endpoints of the Saucelabs REST API. Each test releases the slots it takes.
+ */
+public class SauceConcurrencyTest {
+
+    private static volatile int concurrencyStatus = 200;
+    private static volatile String concurrency;
+    private static volatile String activity;
+    private HttpServer server;
+
+    @BeforeClass
+    public void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rest/v1/users/user/concurrency", exchange -> respond(exchange, concurrencyStatus,
+                concurrency));
+        server.createContext("/rest/v1/user/activity", exchange -> respond(exchange, 200, activity));
+        server.start();
+        serve(3, 2, 1, 1);
+        SauceConcurrency.start(new SauceRestClient("user", "key", "http://"
+                + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/rest/"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    public void sessionsAreRefusedOnceOtherRunsAndThisRunFillTheAccount() {
+        //limit 3 + 2, less 1 + 1 sessions of other runs
+        serve(3, 2, 1, 1);
+        SauceConcurrency.refresh();
+
+        assertTrue(SauceConcurrency.tryAcquire());
+        assertTrue(SauceConcurrency.tryAcquire());
+        assertTrue(SauceConcurrency.tryAcquire());
+        assertFalse(SauceConcurrency.tryAcquire(), "the account's 5 slots are taken by 2 other and 3 own sessions");
+        assertEquals(SauceConcurrency.getUtilization(), 1.0);
+
+        SauceConcurrency.release();
+        assertTrue(SauceConcurrency.tryAcquire(), "a released slot is taken again");
+        assertFalse(SauceConcurrency.tryAcquire());
+
+        //the other runs' sessions ended: the account now only reports this run's 3 sessions
+        serve(3, 2, 3, 0);
+        SauceConcurrency.refresh();
+        assertTrue(SauceConcurrency.tryAcquire());
+        assertTrue(SauceConcurrency.tryAcquire());
+        assertFalse(SauceConcurrency.tryAcquire(), "all 5 slots are this run's");
+
+        releaseAll(5);
+    }
+
+    @Test
+    public void sessionsAreNotLimitedWhileTheLimitIsUnknown() {
+        serve(3, 2, 1, 1);
+        concurrencyStatus = 500;
+        try {
+            SauceConcurrency.refresh();
+            for (int i = 0; i < 20; i++) {
+                assertTrue(SauceConcurrency.tryAcquire(), "session " + (i + 1));
+            }
+            assertEquals(SauceConcurrency.getUtilization(), 0.0);
+            releaseAll(20);
+        } finally {
+            concurrencyStatus = 200;
+        }
+    }
+
+    private static void releaseAll(int slots) {
+        for (int i = 0; i < slots; i++) {
+            SauceConcurrency.release();
+        }
+    }
+
+    private static void serve(int current, int remaining, int inProgress, int queued) {
+        concurrency = "{\"timestamp\":1571400000.0,\"concurrency\":{\"user\":{"
+                + "\"current\":{\"overall\":" + current + ",\"mac\":0,\"manual\":0},"
+                + "\"remaining\":{\"overall\":" + remaining + ",\"mac\":5,\"manual\":5}}}}";
+        activity = "{\"subaccounts\":{\"user\":{\"all\":" + (inProgress + queued) + ",\"in progress\":" + inProgress
+                + ",\"queued\":" + queued + "}},\"totals\":{\"all\":" + (inProgress + queued) + ",\"in progress\":"
+                + inProgress + ",\"queued\":" + queued + "}}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            while (in.read() != -1) {
+                //the request body is not needed
+            }
+        }
+        byte[] bytes = (status == 200 ? body : "{}").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package framework;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Sends job updates through {@link SauceUpdateDispatcher} to an in-JVM stub of the Saucelabs REST API, which answers
+ * each job's requests with a scripted sequence of HTTP statuses.
+ */
+public class SauceUpdateDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(20);
+    private static final Map<String, List<Integer>> STATUSES = new ConcurrentHashMap<>();
+    private static final Map<String, List<Request>> REQUESTS = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private SauceRestClient client;
+
+    @BeforeClass
+    public void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rest/v1/user/jobs/", SauceUpdateDispatcherTest::handle);
+        server.start();
+        client = new SauceRestClient("user", "key", "http://" + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + server.getAddress().getPort() + "/rest/");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    public void rateLimitedAndFailedUpdatesAreRetriedUntilAccepted() throws InterruptedException {
+        STATUSES.put("retried-job", new ArrayList<>(Arrays.asList(429, 503, 200)));
+        STATUSES.put("rejected-job", new ArrayList<>(Collections.singletonList(400)));
+
+        SauceUpdateDispatcher.update(client, "retried-job", Collections.singletonMap("build", "42"));
+        SauceUpdateDispatcher.complete(client, "retried-job", true);
+        SauceUpdateDispatcher.complete(client, "rejected-job", false);
+
+        List<Request> retried = await("retried-job", 3);
+        assertEquals(retried.get(0).method, "PUT");
+        long retryAfterWait = retried.get(1).nanos - retried.get(0).nanos;
+        assertTrue(retryAfterWait >= TimeUnit.MILLISECONDS.toNanos(1900), "waited "
+                + TimeUnit.NANOSECONDS.toMillis(retryAfterWait) + " ms after the 429's Retry-After of 2 seconds");
+        String accepted = retried.get(2).body;
+        assertTrue(accepted.contains("\"build\":\"42\"") && accepted.contains("\"passed\":true"), accepted);
+
+        List<Request> rejected = await("rejected-job", 1);
+        assertEquals(rejected.size(), 1, "a 400 is not retried");
+        assertTrue(rejected.get(0).body.contains("\"passed\":false"), rejected.get(0).body);
+    }
+
+    private static List<Request> await(String jobId, int requests) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            List<Request> received = REQUESTS.getOrDefault(jobId, Collections.emptyList());
+            synchronized (received) {
+                if (received.size() >= requests) {
+                    return new ArrayList<>(received);
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Stub did not receive " + requests + " request(s) for " + jobId + " within "
+                + TIMEOUT_MILLIS + " ms, received: " + REQUESTS.get(jobId));
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String jobId = path.substring(path.lastIndexOf('/') + 1);
+        REQUESTS.computeIfAbsent(jobId, id -> Collections.synchronizedList(new ArrayList<>()))
+                .add(new Request(exchange.getRequestMethod(), read(exchange.getRequestBody()), System.nanoTime()));
+        List<Integer> statuses = STATUSES.getOrDefault(jobId, Collections.emptyList());
+        int status;
+        synchronized (statuses) {
+            status = statuses.size() > 1 ? statuses.remove(0) : statuses.isEmpty() ? 200 : statuses.get(0);
+        }
+        if (status == 429) {
+            exchange.getResponseHeaders().add("Retry-After", "2");
+        }
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static final class Request {
+
+        private final String method;
+        private final String body;
+        private final long nanos;
+
+        private Request(String method, String body, long nanos) {
+            this.method = method;
+            this.body = body;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + body;
+        }
+    }
+}
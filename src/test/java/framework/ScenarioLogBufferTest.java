@@ -0,0 +1,57 @@
+package framework;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ScenarioLogBufferTest {
+
+    @Test
+    public void ringKeepsEveryEventUntilFull() {
+        ScenarioLogBuffer.Ring ring = new ScenarioLogBuffer.Ring(3, "test");
+        ring.add(event("line 1"));
+        ring.add(event("line 2"));
+        String log = ring.format();
+        assertFalse(log.contains("dropped"), log);
+        assertTrue(log.indexOf("line 1") < log.indexOf("line 2"), log);
+    }
+
+    @Test
+    public void ringKeepsTheLatestEventsInOrderAfterWrappingAround() {
+        ScenarioLogBuffer.Ring ring = new ScenarioLogBuffer.Ring(3, "test");
+        for (int i = 1; i <= 7; i++) {
+            ring.add(event("line " + i));
+        }
+        String[] lines = ring.format().split("\n");
+        assertEquals(lines.length, 4);
+        assertEquals(lines[0], "... 4 earlier event(s) dropped");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(lines[i + 1].endsWith("line " + (i + 5)), lines[i + 1]);
+        }
+    }
+
+    @Test
+    public void ringOfExactlyItsSizeDropsNothing() {
+        ScenarioLogBuffer.Ring ring = new ScenarioLogBuffer.Ring(2, "test");
+        ring.add(event("line 1"));
+        ring.add(event("line 2"));
+        String[] lines = ring.format().split("\n");
+        assertEquals(lines.length, 2);
+        assertTrue(lines[0].endsWith("line 1"), lines[0]);
+        assertTrue(lines[1].endsWith("line 2"), lines[1]);
+    }
+
+    private static LogEvent event(String message) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName(ScenarioLogBufferTest.class.getName())
+                .setLevel(Level.INFO)
+                .setMessage(new SimpleMessage(message))
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package framework;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ShardReportMergerTest {
+
+    @Test
+    public void featuresRunBySeveralShardsAreCombined() throws IOException {
+        Path directory = Files.createTempDirectory("shard-report-merger");
+        Path shard0 = write(directory.resolve("shard-0.json"), "["
+                + feature("features/login.feature", "Login", scenario("Valid login", "passed"))
+                + "," + feature("features/cart.feature", "Cart", scenario("Add item", "passed")) + "]");
+        Path shard1 = write(directory.resolve("shard-1.json"), "["
+                + feature("features/login.feature", "Login", scenario("Invalid login", "failed")) + "]");
+
+        ShardReportMerger.merge(directory.toString(), shard0.toString(), shard1.toString());
+
+        JsonArray merged = new JsonParser().parse(new String(Files.readAllBytes(directory.resolve("cucumber.json")),
+                StandardCharsets.UTF_8)).getAsJsonArray();
+        assertEquals(merged.size(), 2);
+        JsonObject login = merged.get(0).getAsJsonObject();
+        assertEquals(login.get("uri").getAsString(), "features/login.feature");
+        JsonArray scenarios = login.getAsJsonArray("elements");
+        assertEquals(scenarios.size(), 2);
+        assertEquals(scenarios.get(0).getAsJsonObject().get("name").getAsString(), "Valid login");
+        assertEquals(scenarios.get(1).getAsJsonObject().get("name").getAsString(), "Invalid login");
+        assertEquals(merged.get(1).getAsJsonObject().get("uri").getAsString(), "features/cart.feature");
+
+        String html = new String(Files.readAllBytes(directory.resolve("parallel-suite-results.html")),
+                StandardCharsets.UTF_8);
+        assertTrue(html.contains("Valid login"));
+        assertTrue(html.contains("Invalid login"));
+        assertTrue(html.contains("Add item"));
+    }
+
+    private static Path write(Path file, String json) throws IOException {
+        return Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String feature(String uri, String name, String scenario) {
+        return "{\"uri\":\"" + uri + "\",\"id\":\"" + name.toLowerCase() + "\",\"name\":\"" + name
+                + "\",\"elements\":[" + scenario + "]}";
+    }
+
+    private static String scenario(String name, String status) {
+        return "{\"type\":\"scenario\",\"name\":\"" + name + "\",\"steps\":[{\"name\":\"a step\",\"result\":"
+                + "{\"status\":\"" + status + "\"}}]}";
+    }
+}
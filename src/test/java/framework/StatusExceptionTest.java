@@ -0,0 +1,35 @@
+package framework;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class StatusExceptionTest {
+
+    @Test
+    public void retryAfterSecondsAreConvertedToMillis() {
+        assertEquals(new SauceRestClient.StatusException(429, "3").getRetryAfterMillis(), 3000);
+        assertEquals(new SauceRestClient.StatusException(503, " 1 ").getRetryAfterMillis(), 1000);
+    }
+
+    @Test
+    public void missingOrUnparseableRetryAfterIsZero() {
+        assertEquals(new SauceRestClient.StatusException(429, null).getRetryAfterMillis(), 0);
+        assertEquals(new SauceRestClient.StatusException(429, "").getRetryAfterMillis(), 0);
+        assertEquals(new SauceRestClient.StatusException(429, "Wed, 21 Oct 2015 07:28:00 GMT").getRetryAfterMillis(),
+                0);
+    }
+
+    @Test
+    public void rateLimitTimeoutAndServerErrorsAreRetryable() {
+        assertTrue(new SauceRestClient.StatusException(429, null).isRetryable());
+        assertTrue(new SauceRestClient.StatusException(408, null).isRetryable());
+        assertTrue(new SauceRestClient.StatusException(500, null).isRetryable());
+        assertTrue(new SauceRestClient.StatusException(503, null).isRetryable());
+        assertFalse(new SauceRestClient.StatusException(400, null).isRetryable());
+        assertFalse(new SauceRestClient.StatusException(401, null).isRetryable());
+        assertFalse(new SauceRestClient.StatusException(404, null).isRetryable());
+    }
+}
@@ -0,0 +1,75 @@
+package framework;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class SuiteShardingTest {
+
+    private static final String[] IDS = {"login.feature:3", "login.feature:12", "cart.feature:5", "cart.feature:20",
+            "search.feature:4", "search.feature:9", "checkout.feature:7", "profile.feature:2"};
+
+    @Test
+    public void hashAssignsEveryScenarioToOneValidShard() {
+        for (int shard : SuiteSharding.hashShards(IDS, 3)) {
+            assertTrue(shard >= 0 && shard < 3, "shard " + shard);
+        }
+    }
+
+    @Test
+    public void hashDependsOnlyOnTheScenarioId() {
+        int[] shards = SuiteSharding.hashShards(IDS, 3);
+        String[] reversed = reverse(IDS);
+        int[] reversedShards = SuiteSharding.hashShards(reversed, 3);
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals(reversedShards[IDS.length - 1 - i], shards[i], IDS[i]);
+        }
+    }
+
+    @Test
+    public void singleShardGetsEverything() {
+        assertEquals(SuiteSharding.hashShards(IDS, 1), new int[IDS.length]);
+        assertEquals(SuiteSharding.durationShards(IDS, new long[IDS.length], 1), new int[IDS.length]);
+    }
+
+    @Test
+    public void durationBalancesTheLongestScenariosFirst() {
+        String[] ids = {"a", "b", "c", "d", "e"};
+        long[] estimates = {50, 40, 30, 20, 10};
+        int[] shards = SuiteSharding.durationShards(ids, estimates, 2);
+        assertEquals(shards, new int[]{0, 1, 1, 0, 0});
+        long[] load = new long[2];
+        for (int i = 0; i < ids.length; i++) {
+            load[shards[i]] += estimates[i];
+        }
+        assertEquals(load, new long[]{80, 70});
+    }
+
+    @Test
+    public void durationDoesNotDependOnDiscoveryOrder() {
+        long[] estimates = new long[IDS.length];
+        Arrays.fill(estimates, 1000);
+        estimates[2] = 5000;
+        int[] shards = SuiteSharding.durationShards(IDS, estimates, 3);
+        String[] reversedIds = reverse(IDS);
+        long[] reversedEstimates = new long[IDS.length];
+        for (int i = 0; i < IDS.length; i++) {
+            reversedEstimates[IDS.length - 1 - i] = estimates[i];
+        }
+        int[] reversedShards = SuiteSharding.durationShards(reversedIds, reversedEstimates, 3);
+        for (int i = 0; i < IDS.length; i++) {
+            assertEquals(reversedShards[IDS.length - 1 - i], shards[i], IDS[i]);
+        }
+    }
+
+    private static String[] reverse(String[] values) {
+        String[] reversed = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reversed[values.length - 1 - i] = values[i];
+        }
+        return reversed;
+    }
+}
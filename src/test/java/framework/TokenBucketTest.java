@@ -0,0 +1,45 @@
+package framework;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void burstUpToCapacityIsNotThrottled() {
+        SauceUpdateDispatcher.TokenBucket bucket = new SauceUpdateDispatcher.TokenBucket(1, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(bucket.reserve(), 0);
+        }
+    }
+
+    @Test
+    public void reservationsBeyondCapacityAreSpacedByTheRate() {
+        SauceUpdateDispatcher.TokenBucket bucket = new SauceUpdateDispatcher.TokenBucket(10, 1);
+        assertEquals(bucket.reserve(), 0);
+        long first = bucket.reserve();
+        long second = bucket.reserve();
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        assertTrue(first > interval / 2 && first <= interval, "first wait " + first);
+        assertTrue(second > first + interval / 2 && second <= 2 * interval, "second wait " + second);
+    }
+
+    @Test
+    public void capacityBelowOneAllowsOneToken() {
+        SauceUpdateDispatcher.TokenBucket bucket = new SauceUpdateDispatcher.TokenBucket(1, 0);
+        assertEquals(bucket.reserve(), 0);
+        assertTrue(bucket.reserve() > 0);
+    }
+
+    @Test
+    public void zeroRateDisablesLimiting() {
+        SauceUpdateDispatcher.TokenBucket bucket = new SauceUpdateDispatcher.TokenBucket(0, 1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(bucket.reserve(), 0);
+        }
+    }
+}